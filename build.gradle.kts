@@ -37,6 +37,7 @@ plugins {
     id("org.jetbrains.intellij") version "1.17.2"
     id("org.cadixdev.licenser")
     id("org.jlleitschuh.gradle.ktlint") version "10.3.0"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 val ideaVersionName: String by project
@@ -135,6 +136,9 @@ dependencies {
     testImplementation(libs.junit.api)
     testRuntimeOnly(libs.junit.entine)
     testRuntimeOnly(libs.junit.platform.launcher)
+
+    // Real class files for the bytecode benchmarks
+    jmhImplementation(projects.mixinTestData)
 }
 
 val artifactType = Attribute.of("artifactType", String::class.java)
@@ -164,6 +168,14 @@ configurations.compileClasspath {
     attributes.attribute(filtered, true)
 }
 
+// The benchmarks run outside of the IDE, but the benchmarked code still links against platform classes
+configurations.jmhImplementation {
+    extendsFrom(configurations.compileOnly.get())
+}
+configurations.jmhCompileClasspath {
+    attributes.attribute(filtered, true)
+}
+
 intellij {
     // IntelliJ IDEA dependency
     version.set(providers.gradleProperty("ideaVersion"))
@@ -268,6 +280,23 @@ tasks.test {
     )
 }
 
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    // Run a subset with -PjmhIncludes=<regex>, e.g. -PjmhIncludes=Nbt
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.add(it) }
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    failOnError.set(true)
+    // Machine readable results, so runs can be compared against each other
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+}
+
+tasks.jmh {
+    group = "minecraft"
+}
+
 idea {
     project.settings.taskTriggers.afterSync("generate")
     module {
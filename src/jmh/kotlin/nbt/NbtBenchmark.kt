@@ -0,0 +1,58 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.nbt
+
+import com.demonwav.mcdev.nbt.tags.RootCompound
+import java.io.ByteArrayInputStream
+import java.util.concurrent.TimeUnit
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class NbtBenchmark {
+    private lateinit var data: ByteArray
+    private lateinit var tree: RootCompound
+
+    @Setup
+    fun setup() {
+        data = NbtBenchmark::class.java.getResourceAsStream("sample.nbt")!!.use { it.readBytes() }
+        tree = Nbt.buildTagTree(ByteArrayInputStream(data), Long.MAX_VALUE).first
+    }
+
+    @Benchmark
+    fun buildTagTree() = Nbt.buildTagTree(ByteArrayInputStream(data), Long.MAX_VALUE)
+
+    @Benchmark
+    fun readTagTree() = Nbt.readTagTree(ByteArrayInputStream(data))
+
+    @Benchmark
+    fun readTagTreeToString() = Nbt.readTagTree(ByteArrayInputStream(data)).first.toString()
+
+    @Benchmark
+    fun tagCompoundToString() = tree.toString()
+}
@@ -0,0 +1,90 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.platform.mcp.srg
+
+import com.demonwav.mcdev.platform.mcp.mappings.Mappings
+import com.demonwav.mcdev.util.MemberReference
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+import java.util.concurrent.TimeUnit
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import org.openjdk.jmh.infra.Blackhole
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class SrgParserBenchmark {
+    private lateinit var srgFile: Path
+    private lateinit var tsrgFile: Path
+    private lateinit var mappings: Mappings
+    private lateinit var mappedMethods: List<MemberReference>
+    private lateinit var intermediaryMethods: List<MemberReference>
+
+    @Setup
+    fun setup() {
+        srgFile = copyResource("sample.srg")
+        tsrgFile = copyResource("sample.tsrg")
+        mappings = StandardSrgParser.parseSrg(srgFile)
+        mappedMethods = mappings.methodMappings.map { it.first }.toList()
+        intermediaryMethods = mappings.methodMappings.map { it.second }.toList()
+    }
+
+    @TearDown
+    fun tearDown() {
+        Files.deleteIfExists(srgFile)
+        Files.deleteIfExists(tsrgFile)
+    }
+
+    private fun copyResource(name: String): Path {
+        val file = Files.createTempFile("mcdev-benchmark", name)
+        SrgParserBenchmark::class.java.getResourceAsStream(name)!!.use {
+            Files.copy(it, file, StandardCopyOption.REPLACE_EXISTING)
+        }
+        return file
+    }
+
+    @Benchmark
+    fun parseSrg() = StandardSrgParser.parseSrg(srgFile)
+
+    @Benchmark
+    fun parseTsrg() = TinySrgParser.parseSrg(tsrgFile, newParser = false)
+
+    @Benchmark
+    fun parseTsrgMappingIo() = TinySrgParser.parseSrg(tsrgFile, newParser = true)
+
+    @Benchmark
+    fun lookupMethods(blackhole: Blackhole) {
+        for (method in mappedMethods) {
+            blackhole.consume(mappings.getIntermediaryMethod(method))
+        }
+        for (method in intermediaryMethods) {
+            blackhole.consume(mappings.tryGetMappedMethod(method))
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.platform.mixin
+
+import com.demonwav.mcdev.platform.mixin.reference.MixinSelector
+import com.demonwav.mcdev.util.MemberReference
+import java.util.concurrent.TimeUnit
+import org.objectweb.asm.ClassReader
+import org.objectweb.asm.tree.ClassNode
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class MixinSelectorBenchmark {
+    private lateinit var classes: List<ClassNode>
+    private lateinit var selectors: List<MixinSelector>
+
+    @Setup
+    fun setup() {
+        // Real class files: the mixin test data plus some larger classes from ASM itself
+        classes = listOf(
+            "com.demonwav.mcdev.mixintestdata.shadow.MixinBase",
+            "com.demonwav.mcdev.mixintestdata.superClass.Entity",
+            "com.demonwav.mcdev.mixintestdata.accessor.BaseMixin",
+            "com.demonwav.mcdev.mixintestdata.invalidInjectorMethodSignatureFix.MixedInOuter",
+            "org.objectweb.asm.ClassReader",
+            "org.objectweb.asm.ClassWriter",
+            "org.objectweb.asm.MethodWriter",
+            "org.objectweb.asm.tree.MethodNode",
+            "org.objectweb.asm.tree.analysis.Frame",
+        ).map { name ->
+            val stream = MixinSelectorBenchmark::class.java.classLoader
+                .getResourceAsStream(name.replace('.', '/') + ".class")!!
+            val node = ClassNode()
+            stream.use { ClassReader(it).accept(node, 0) }
+            node
+        }
+
+        selectors = listOf(
+            MemberReference("readInt"),
+            MemberReference("accept", "(Lorg/objectweb/asm/ClassVisitor;I)V", "org.objectweb.asm.ClassReader"),
+            MemberReference("visitMethodInsn", owner = "org.objectweb.asm.MethodWriter"),
+            MemberReference("", matchAllNames = true, matchAllDescs = true),
+            MemberReference("<init>", "()V"),
+        )
+    }
+
+    @Benchmark
+    fun matchMethods(): Int {
+        var matches = 0
+        for (selector in selectors) {
+            for (clazz in classes) {
+                for (method in clazz.methods) {
+                    if (selector.matchMethod(method, clazz)) {
+                        matches++
+                    }
+                }
+            }
+        }
+        return matches
+    }
+
+    @Benchmark
+    fun matchFields(): Int {
+        var matches = 0
+        for (selector in selectors) {
+            for (clazz in classes) {
+                for (field in clazz.fields) {
+                    if (selector.matchField(field, clazz)) {
+                        matches++
+                    }
+                }
+            }
+        }
+        return matches
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.util
+
+import java.util.concurrent.TimeUnit
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.infra.Blackhole
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class SemanticVersionBenchmark {
+    private lateinit var versionStrings: List<String>
+    private lateinit var versions: List<SemanticVersion>
+
+    @Setup
+    fun setup() {
+        // A mix of the version formats seen in Minecraft, Forge, Fabric and Mixin metadata
+        val strings = mutableListOf<String>()
+        for (minor in 8..20) {
+            for (patch in 0..4) {
+                strings += "1.$minor.$patch"
+                strings += "1.$minor.$patch-pre$patch"
+                strings += "1.$minor.$patch-rc.1"
+                strings += "1.$minor.$patch-$minor.$patch.${minor * 10 + patch}"
+                strings += "0.$minor.$patch+build.${minor * 100 + patch}"
+                strings += "0.$minor.$patch+mixin.0.8.$patch"
+            }
+        }
+        versionStrings = strings
+        versions = strings.map(SemanticVersion::parse)
+    }
+
+    @Benchmark
+    fun parse(blackhole: Blackhole) {
+        for (version in versionStrings) {
+            blackhole.consume(SemanticVersion.parse(version))
+        }
+    }
+
+    @Benchmark
+    fun sort() = versions.sorted()
+}
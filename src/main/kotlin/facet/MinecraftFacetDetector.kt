@@ -24,19 +24,24 @@ import com.demonwav.mcdev.platform.PlatformType
 import com.demonwav.mcdev.platform.architectury.framework.ARCHITECTURY_LIBRARY_KIND
 import com.demonwav.mcdev.platform.architectury.framework.ArchitecturyGradleData
 import com.demonwav.mcdev.platform.fabric.framework.FABRIC_LIBRARY_KIND
+import com.demonwav.mcdev.platform.mcp.fabricloom.FabricLoomData
 import com.demonwav.mcdev.platform.mcp.gradle.tooling.archloom.ArchitecturyModel
 import com.demonwav.mcdev.platform.sponge.framework.SPONGE_LIBRARY_KIND
-import com.demonwav.mcdev.util.ifEmpty
 import com.demonwav.mcdev.util.runWriteTaskLater
+import com.google.common.hash.HashCode
+import com.google.common.hash.Hasher
+import com.google.common.hash.Hashing
 import com.intellij.facet.FacetManager
 import com.intellij.facet.impl.ui.libraries.LibrariesValidatorContextImpl
 import com.intellij.framework.library.LibraryVersionProperties
 import com.intellij.openapi.application.runInEdt
+import com.intellij.openapi.application.runReadAction
 import com.intellij.openapi.module.Module
 import com.intellij.openapi.module.ModuleManager
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.roots.ModuleRootEvent
 import com.intellij.openapi.roots.ModuleRootListener
+import com.intellij.openapi.roots.ModuleRootManager
 import com.intellij.openapi.roots.OrderRootType
 import com.intellij.openapi.roots.libraries.LibraryDetectionManager
 import com.intellij.openapi.roots.libraries.LibraryKind
@@ -44,11 +49,23 @@ import com.intellij.openapi.roots.libraries.LibraryProperties
 import com.intellij.openapi.roots.ui.configuration.libraries.LibraryPresentationManager
 import com.intellij.openapi.startup.ProjectActivity
 import com.intellij.openapi.util.Key
+import com.intellij.util.concurrency.AppExecutorUtil
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.atomic.AtomicBoolean
 import org.jetbrains.plugins.gradle.util.GradleUtil
 
 class MinecraftFacetDetector : ProjectActivity {
     companion object {
-        private val libraryVersionsKey = Key<MutableMap<LibraryKind, String>>("mcdev.libraryVersions")
+        private val libraryVersionsKey = Key<Map<LibraryKind, String>>("mcdev.libraryVersions")
+        private val fingerprintKey = Key<ModuleFingerprint>("mcdev.facetDetectionFingerprint")
+        private val checkQueuedKey = Key<AtomicBoolean>("mcdev.facetDetectionQueued")
+
+        private val checkExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Minecraft Facet Detector", 1)
+        private val detectionExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+            "Minecraft Facet Detection",
+            Runtime.getRuntime().availableProcessors().coerceIn(1, 4),
+        )
 
         fun getLibraryVersions(module: Module): Map<LibraryKind, String> {
             return module.getUserData(libraryVersionsKey) ?: emptyMap()
@@ -59,6 +76,17 @@ class MinecraftFacetDetector : ProjectActivity {
         MinecraftModuleRootListener.doCheck(project)
     }
 
+    /**
+     * Hashes of what auto detection depends on for a module, so that unchanged modules aren't examined again.
+     */
+    private data class ModuleFingerprint(val libraries: HashCode, val roots: HashCode)
+
+    private class Detection(
+        val fingerprint: ModuleFingerprint,
+        val platforms: Set<PlatformType>,
+        val libraryVersions: Map<LibraryKind, String>,
+    )
+
     private object MinecraftModuleRootListener : ModuleRootListener {
         override fun rootsChanged(event: ModuleRootEvent) {
             if (event.isCausedByFileTypesChange) {
@@ -66,25 +94,52 @@ class MinecraftFacetDetector : ProjectActivity {
             }
 
             val project = event.source as? Project ?: return
-            doCheck(project)
+            // This is called inside a write action, detect in the background. Checks requested while one is already
+            // queued are merged into it, since it will see the latest roots anyway.
+            val queued = project.putUserDataIfAbsent(checkQueuedKey, AtomicBoolean())
+            if (queued.compareAndSet(false, true)) {
+                checkExecutor.execute {
+                    queued.set(false)
+                    if (!project.isDisposed) {
+                        doCheck(project)
+                    }
+                }
+            }
         }
 
         fun doCheck(project: Project) {
-            val moduleManager = ModuleManager.getInstance(project)
+            val modules = runReadAction { ModuleManager.getInstance(project).modules }
+
+            val detections = modules.map { module ->
+                detectionExecutor.submit(Callable { runReadAction { detect(module) } })
+            }
 
             var needsReimport = false
 
-            for (module in moduleManager.modules) {
-                val facetManager = FacetManager.getInstance(module)
-                val minecraftFacet = facetManager.getFacetByType(MinecraftFacet.ID)
-
-                if (minecraftFacet == null) {
-                    checkNoFacet(module)
-                } else {
-                    checkExistingFacet(module, minecraftFacet)
-                    if (ProjectReimporter.needsReimport(minecraftFacet)) {
-                        needsReimport = true
+            for ((module, pendingDetection) in modules.zip(detections)) {
+                val detection = try {
+                    pendingDetection.get()
+                } catch (e: ExecutionException) {
+                    throw e.cause ?: e
+                }
+                if (module.isDisposed) {
+                    continue
+                }
+
+                val minecraftFacet = FacetManager.getInstance(module).getFacetByType(MinecraftFacet.ID)
+
+                if (detection != null) {
+                    module.putUserData(libraryVersionsKey, detection.libraryVersions)
+                    if (minecraftFacet == null) {
+                        checkNoFacet(module, detection.platforms)
+                    } else {
+                        checkExistingFacet(minecraftFacet, detection.platforms)
                     }
+                    module.putUserData(fingerprintKey, detection.fingerprint)
+                }
+
+                if (minecraftFacet != null && ProjectReimporter.needsReimport(minecraftFacet)) {
+                    needsReimport = true
                 }
             }
 
@@ -95,8 +150,71 @@ class MinecraftFacetDetector : ProjectActivity {
             }
         }
 
-        private fun checkNoFacet(module: Module) {
-            val platforms = autoDetectTypes(module).ifEmpty { return }
+        /**
+         * Detects the platforms of [module], or returns `null` if nothing detection depends on changed since the last
+         * time. Must be called in a read action.
+         */
+        private fun detect(module: Module): Detection? {
+            if (module.isDisposed) {
+                return null
+            }
+
+            val hasFacet = FacetManager.getInstance(module).getFacetByType(MinecraftFacet.ID) != null
+            val fingerprint = fingerprint(module, hasFacet)
+            val previous = module.getUserData(fingerprintKey)
+            if (fingerprint == previous) {
+                return null
+            }
+
+            val libraryVersions = mutableMapOf<LibraryKind, String>()
+            val platforms = autoDetectTypes(module, libraryVersions)
+            return Detection(fingerprint, platforms, libraryVersions)
+        }
+
+        private fun fingerprint(module: Module, hasFacet: Boolean): ModuleFingerprint {
+            val rootManager = ModuleRootManager.getInstance(module)
+
+            val libraries = Hashing.murmur3_128().newHasher()
+            libraries.putBoolean(hasFacet)
+            rootManager.orderEntries().recursively().librariesOnly().forEachLibrary { library ->
+                libraries.putEntry(library.name ?: "")
+                for (url in library.getUrls(OrderRootType.CLASSES)) {
+                    libraries.putEntry(url)
+                }
+                true
+            }
+            rootManager.orderEntries().recursively().withoutLibraries().withoutSdk().forEachModule { dependency ->
+                libraries.putEntry(dependency.name)
+                true
+            }
+            libraries.putInt(findArchitecturyGradleData(module)?.moduleType?.ordinal ?: -1)
+            // the Fabric module reads the named mappings from the Loom data, switching mappings may not change anything
+            // else detection looks at
+            val tinyMappings = findFabricLoomData(module)?.tinyMappings
+            libraries.putEntry(tinyMappings?.path ?: "")
+            libraries.putLong(tinyMappings?.lastModified() ?: 0)
+
+            val roots = Hashing.murmur3_128().newHasher()
+            for (entry in rootManager.contentEntries) {
+                for (folder in entry.sourceFolders) {
+                    roots.putEntry(folder.url)
+                    roots.putEntry(folder.rootType.javaClass.name)
+                    roots.putBoolean(folder.isTestSource)
+                }
+            }
+
+            return ModuleFingerprint(libraries.hash(), roots.hash())
+        }
+
+        private fun Hasher.putEntry(value: String) {
+            putInt(value.length)
+            putUnencodedChars(value)
+        }
+
+        private fun checkNoFacet(module: Module, platforms: Set<PlatformType>) {
+            if (platforms.isEmpty()) {
+                return
+            }
 
             runWriteTaskLater {
                 // Only add the new facet if there isn't a Minecraft facet already - double check here since this
@@ -121,27 +239,36 @@ class MinecraftFacetDetector : ProjectActivity {
             }
         }
 
-        private fun checkExistingFacet(module: Module, facet: MinecraftFacet) {
-            val platforms = autoDetectTypes(module).ifEmpty { return }
-
-            val types = facet.configuration.state.autoDetectTypes
-            types.clear()
-            types.addAll(platforms)
+        /**
+         * Updates the types of [facet] and refreshes it. Only called when the module's fingerprint changed, the facet
+         * refresh also refreshes the platform modules, which read libraries and mappings detection doesn't look at.
+         */
+        private fun checkExistingFacet(facet: MinecraftFacet, platforms: Set<PlatformType>) {
+            if (platforms.isEmpty()) {
+                return
+            }
 
+            val newTypes = platforms.toMutableSet()
             if (facet.configuration.state.forgePatcher) {
                 // make sure Forge and MCP are present
-                types.add(PlatformType.FORGE)
-                types.add(PlatformType.MCP)
+                newTypes.add(PlatformType.FORGE)
+                newTypes.add(PlatformType.MCP)
+            }
+
+            val types = facet.configuration.state.autoDetectTypes
+            // The facet stores its types without parents, compare them the same way
+            if (PlatformType.removeParents(newTypes) != PlatformType.removeParents(types)) {
+                types.clear()
+                types.addAll(newTypes)
             }
 
             facet.refresh()
         }
 
-        private fun autoDetectTypes(module: Module): Set<PlatformType> {
-            val libraryVersions = module.getUserData(libraryVersionsKey)
-                ?: mutableMapOf<LibraryKind, String>().also { module.putUserData(libraryVersionsKey, it) }
-            libraryVersions.clear()
-
+        private fun autoDetectTypes(
+            module: Module,
+            libraryVersions: MutableMap<LibraryKind, String>,
+        ): Set<PlatformType> {
             val presentationManager = LibraryPresentationManager.getInstance()
             val context = LibrariesValidatorContextImpl(module)
 
@@ -204,13 +331,22 @@ class MinecraftFacetDetector : ProjectActivity {
                     return@forEach true
                 }
 
-            val architecturyGradleData = GradleUtil.findGradleModuleData(module)?.children
-                ?.find { it.key == ArchitecturyGradleData.KEY }?.data as? ArchitecturyGradleData
+            val architecturyGradleData = findArchitecturyGradleData(module)
             if (architecturyGradleData?.moduleType == ArchitecturyModel.ModuleType.COMMON) {
                 platformKinds.add(ARCHITECTURY_LIBRARY_KIND)
                 platformKinds.removeIf { it == FABRIC_LIBRARY_KIND }
             }
             return platformKinds.mapNotNull { kind -> PlatformType.fromLibraryKind(kind) }.toSet()
         }
+
+        private fun findFabricLoomData(module: Module): FabricLoomData? {
+            return GradleUtil.findGradleModuleData(module)?.children
+                ?.find { it.key == FabricLoomData.KEY }?.data as? FabricLoomData
+        }
+
+        private fun findArchitecturyGradleData(module: Module): ArchitecturyGradleData? {
+            return GradleUtil.findGradleModuleData(module)?.children
+                ?.find { it.key == ArchitecturyGradleData.KEY }?.data as? ArchitecturyGradleData
+        }
     }
 }
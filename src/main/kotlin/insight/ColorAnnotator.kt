@@ -37,6 +37,9 @@ class ColorAnnotator : Annotator {
         if (!MinecraftSettings.instance.isShowChatColorUnderlines) {
             return
         }
+        if (element.firstChild != null || !ColorLookup.isCandidateName(element.text)) {
+            return
+        }
 
         val color = element.toUElementOfType<UIdentifier>()?.findColor { _, chosenEntry -> chosenEntry.value } ?: return
 
@@ -52,6 +52,10 @@ class ColorLineMarkerProvider : LineMarkerProvider {
         if (!MinecraftSettings.instance.isShowChatColorGutterIcons) {
             return null
         }
+        // only identifiers can be colors, filter them by name before converting anything to UAST
+        if (element.firstChild != null || !ColorLookup.isCandidateName(element.text)) {
+            return null
+        }
 
         val identifier = element.toUElementOfType<UIdentifier>() ?: return null
         val info = runCatchingKtIdeaExceptions {
@@ -0,0 +1,96 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.insight
+
+import com.demonwav.mcdev.facet.MinecraftFacet
+import com.demonwav.mcdev.platform.mcp.mappings.HasCustomNamedMappings
+import com.intellij.openapi.module.Module
+import com.intellij.openapi.util.ModificationTracker
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiModificationTracker
+import java.awt.Color
+import java.util.AbstractMap.SimpleImmutableEntry
+
+/**
+ * Per module index of the color constants provided by the module's platforms, keyed by the declaring class and the
+ * constant name.
+ */
+class ColorLookup private constructor(private val classes: Map<String, ClassColors>) {
+
+    /**
+     * Returns the color constant [name] declared in [className], along with all colors declared in that class.
+     */
+    fun find(className: String, name: String): Pair<Map<String, Color>, Map.Entry<String, Color>>? {
+        val classColors = classes[className] ?: return null
+        val entry = classColors.byName[name] ?: return null
+        return classColors.colors to entry
+    }
+
+    private class ClassColors {
+        val colors = LinkedHashMap<String, Color>()
+        val byName = HashMap<String, Map.Entry<String, Color>>()
+    }
+
+    companion object {
+        fun getInstance(module: Module): ColorLookup? {
+            return CachedValuesManager.getManager(module.project).getCachedValue(module) {
+                val facet = MinecraftFacet.getInstance(module)
+                    ?: return@getCachedValue CachedValueProvider.Result(null, PsiModificationTracker.MODIFICATION_COUNT)
+                // mapped color names change once the mappings finish loading, don't hold on to the unmapped ones
+                val mappingsPending = facet.modules.any {
+                    it is HasCustomNamedMappings && it.namedToMojangManager?.let { m -> m.mappingsNow == null } == true
+                }
+                CachedValueProvider.Result(
+                    create(module, facet),
+                    PsiModificationTracker.MODIFICATION_COUNT,
+                    if (mappingsPending) ModificationTracker.EVER_CHANGED else ModificationTracker.NEVER_CHANGED,
+                )
+            }
+        }
+
+        private fun create(module: Module, facet: MinecraftFacet): ColorLookup? {
+            val classes = HashMap<String, ClassColors>()
+            for (moduleType in facet.types) {
+                for ((key, color) in moduleType.classToColorMappings(module)) {
+                    val className = key.substringBeforeLast('.')
+                    val classColors = classes.getOrPut(className, ::ClassColors)
+                    // several platforms may provide the same class, the first one wins
+                    if (classColors.colors.putIfAbsent(key, color) == null) {
+                        classColors.byName[key.substringAfterLast('.')] = SimpleImmutableEntry(key, color)
+                    }
+                }
+            }
+            return if (classes.isEmpty()) null else ColorLookup(classes)
+        }
+
+        /**
+         * Cheap check run on identifiers before anything is resolved. Color constants and the fields aliasing them are
+         * named like constants, so anything else can be skipped without looking at the module.
+         */
+        fun isCandidateName(name: CharSequence): Boolean {
+            if (name.isEmpty() || !name[0].isUpperCase()) {
+                return false
+            }
+            return name.all { it == '_' || it.isDigit() || it.isUpperCase() }
+        }
+    }
+}
@@ -29,6 +29,7 @@ import com.demonwav.mcdev.util.runCatchingKtIdeaExceptions
 import com.demonwav.mcdev.util.runWriteAction
 import com.intellij.openapi.module.ModuleUtilCore
 import com.intellij.psi.JVMElementFactories
+import com.intellij.psi.PsiField
 import com.intellij.psi.PsiType
 import com.intellij.psi.PsiTypes
 import com.intellij.psi.search.GlobalSearchScope
@@ -47,17 +48,24 @@ import org.jetbrains.uast.UResolvable
 import org.jetbrains.uast.generate.generationPlugin
 import org.jetbrains.uast.generate.replace
 import org.jetbrains.uast.resolveToUElement
+import org.jetbrains.uast.toUElementOfType
 
 fun <T> UIdentifier.findColor(function: (Map<String, Color>, Map.Entry<String, Color>) -> T): T? {
+    if (!ColorLookup.isCandidateName(name)) {
+        return null
+    }
     return runCatchingKtIdeaExceptions {
         val parent = this.uastParent
         val expression = parent as? UReferenceExpression ?: return null
-        findColorFromExpression(expression, function)
+        val module = expression.sourcePsi?.findModule() ?: return null
+        val lookup = ColorLookup.getInstance(module) ?: return null
+        findColorFromExpression(expression, lookup, function)
     }
 }
 
 private fun <T> findColorFromExpression(
     expression: UReferenceExpression,
+    lookup: ColorLookup,
     function: (Map<String, Color>, Map.Entry<String, Color>) -> T,
     maxDepth: Int = 10,
     depth: Int = 0,
@@ -66,33 +74,18 @@ private fun <T> findColorFromExpression(
         return null
     }
 
-    val referencedElement = runCatchingKtIdeaExceptions { expression.resolveToUElement() }
-    if (referencedElement is UField) {
-        val referencedFieldInitializer = referencedElement.uastInitializer
-        if (referencedFieldInitializer is UReferenceExpression) {
-            return findColorFromExpression(referencedFieldInitializer, function, maxDepth, depth + 1)
+    val resolved = runCatchingKtIdeaExceptions { expression.resolve() } ?: return null
+    if (resolved is PsiField) {
+        val className = resolved.containingClass?.qualifiedName
+        val found = className?.let { lookup.find(it, resolved.name) }
+        if (found != null) {
+            return function(found.first, found.second)
         }
     }
 
-    val type = expression.getExpressionType() ?: return null
-    val module = expression.sourcePsi?.findModule() ?: return null
-    val facet = MinecraftFacet.getInstance(module) ?: return null
-    val resolvedName = expression.resolvedName ?: return null
-    for (abstractModuleType in facet.types) {
-        val map = abstractModuleType.classToColorMappings(module)
-        for (entry in map.entries) {
-            // This is such a hack
-            // Okay, type will be the fully-qualified class, but it will exclude the actual enum
-            // the expression will be the non-fully-qualified class with the enum
-            // So we combine those checks and get this
-            val colorClass = entry.key.substringBeforeLast('.')
-            val colorName = entry.key.substringAfterLast('.')
-            if (colorClass.startsWith(type.canonicalText) && colorName == resolvedName) {
-                return function(map.filterKeys { key -> key.startsWith(colorClass) }, entry)
-            }
-        }
-    }
-    return null
+    val referencedElement = runCatchingKtIdeaExceptions { resolved.toUElementOfType<UField>() } ?: return null
+    val referencedFieldInitializer = referencedElement.uastInitializer as? UReferenceExpression ?: return null
+    return findColorFromExpression(referencedFieldInitializer, lookup, function, maxDepth, depth + 1)
 }
 
 fun UIdentifier.findColor(
@@ -37,9 +37,13 @@ import com.demonwav.mcdev.nbt.tags.TagLong
 import com.demonwav.mcdev.nbt.tags.TagLongArray
 import com.demonwav.mcdev.nbt.tags.TagShort
 import com.demonwav.mcdev.nbt.tags.TagString
+import com.intellij.openapi.util.io.BufferExposingByteArrayOutputStream
+import com.intellij.openapi.vfs.VirtualFile
 import java.io.DataInputStream
 import java.io.InputStream
+import java.nio.ByteBuffer
 import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPInputStream.GZIP_MAGIC
 import java.util.zip.ZipException
 
 object Nbt {
@@ -84,6 +88,62 @@ object Nbt {
         }
     }
 
+    /**
+     * Read the NBT file and return its root compound, without building the tag tree up front. The structure of the file
+     * is validated while reading it, but tags are only decoded once they're accessed. See [NbtReader].
+     *
+     * The file is always read into a heap buffer. Lazy tags keep the buffer alive for as long as they exist, and a
+     * memory-mapped file would stay locked (or break when truncated) for just as long.
+     */
+    @Throws(MalformedNbtFileException::class)
+    fun readTagTree(file: VirtualFile): Pair<RootCompound, Boolean> {
+        return readTagTree {
+            val isCompressed = file.inputStream.use { it.isGzipped() }
+            readBuffer(file.inputStream, isCompressed, file.length) to isCompressed
+        }
+    }
+
+    /**
+     * Read the NBT data from the InputStream and return its root compound, without building the tag tree up front.
+     * This method closes the stream when it is finished with it.
+     */
+    @Throws(MalformedNbtFileException::class)
+    fun readTagTree(inputStream: InputStream): Pair<RootCompound, Boolean> {
+        return readTagTree {
+            val stream = inputStream.buffered()
+            stream.mark(2)
+            val isCompressed = stream.isGzipped()
+            stream.reset()
+            readBuffer(stream, isCompressed, 0) to isCompressed
+        }
+    }
+
+    private inline fun readTagTree(readBuffer: () -> Pair<ByteBuffer, Boolean>): Pair<RootCompound, Boolean> {
+        try {
+            val (buffer, isCompressed) = readBuffer()
+            return NbtReader(buffer).rootCompound to isCompressed
+        } catch (e: Throwable) {
+            if (e is MalformedNbtFileException) {
+                throw e
+            } else {
+                throw MalformedNbtFileException(MCDevBundle("nbt.lang.errors.reading"), e)
+            }
+        }
+    }
+
+    private fun readBuffer(stream: InputStream, isCompressed: Boolean, sizeHint: Long): ByteBuffer {
+        val output = BufferExposingByteArrayOutputStream(sizeHint.coerceIn(32, Int.MAX_VALUE.toLong()).toInt())
+        val input = if (isCompressed) GZIPInputStream(stream) else stream
+        input.use { it.copyTo(output) }
+        return ByteBuffer.wrap(output.internalBuffer, 0, output.size())
+    }
+
+    private fun InputStream.isGzipped(): Boolean {
+        val first = read()
+        val second = read()
+        return first == GZIP_MAGIC and 0xFF && second == GZIP_MAGIC ushr 8
+    }
+
     private fun DataInputStream.readCompoundTag(start: Long, timeout: Long) = checkTimeout(start, timeout) {
         val tagMap = HashMap<String, NbtTag>()
 
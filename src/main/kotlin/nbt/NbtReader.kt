@@ -0,0 +1,348 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.nbt
+
+import com.demonwav.mcdev.asset.MCDevBundle
+import com.demonwav.mcdev.nbt.tags.NbtTag
+import com.demonwav.mcdev.nbt.tags.NbtTypeId
+import com.demonwav.mcdev.nbt.tags.RootCompound
+import com.demonwav.mcdev.nbt.tags.TagByte
+import com.demonwav.mcdev.nbt.tags.TagByteArray
+import com.demonwav.mcdev.nbt.tags.TagCompound
+import com.demonwav.mcdev.nbt.tags.TagDouble
+import com.demonwav.mcdev.nbt.tags.TagEnd
+import com.demonwav.mcdev.nbt.tags.TagFloat
+import com.demonwav.mcdev.nbt.tags.TagInt
+import com.demonwav.mcdev.nbt.tags.TagIntArray
+import com.demonwav.mcdev.nbt.tags.TagList
+import com.demonwav.mcdev.nbt.tags.TagLong
+import com.demonwav.mcdev.nbt.tags.TagLongArray
+import com.demonwav.mcdev.nbt.tags.TagShort
+import com.demonwav.mcdev.nbt.tags.TagString
+import java.io.EOFException
+import java.nio.ByteBuffer
+
+/**
+ * Reads NBT data from a [ByteBuffer] without building the whole tag tree up front.
+ *
+ * Creating the reader validates the structure of the data in a single pass, recording where each compound and list
+ * ends. The tags returned by [rootCompound] are then only decoded when they're accessed: compounds and lists read
+ * their children from the buffer on demand, and array tags keep referencing their slice of the buffer until their
+ * values are needed.
+ */
+class NbtReader(buffer: ByteBuffer) {
+    private val buffer = buffer.duplicate()
+    private val limit = this.buffer.limit()
+
+    // Payload start offsets of every compound and list in the order they appear, which is also ascending order,
+    // along with the offset the payload ends at
+    private var containerStarts = IntArray(64)
+    private var containerEnds = IntArray(64)
+    private var containerCount = 0
+
+    val rootCompound: RootCompound
+
+    init {
+        val tagId = readTypeId(0)
+        if (tagId != NbtTypeId.COMPOUND) {
+            throw MalformedNbtFileException(MCDevBundle("nbt.lang.errors.invalid_root"))
+        }
+        val nameLength = readUnsignedShort(1)
+        val payloadStart = checkBounds(3, nameLength.toLong())
+        val name = readUtf(3, nameLength)
+        skipPayload(NbtTypeId.COMPOUND, payloadStart)
+        rootCompound = RootCompound(name, LazyCompoundMap(this, payloadStart))
+    }
+
+    private fun skipPayload(type: NbtTypeId, pos: Int): Int {
+        return when (type) {
+            NbtTypeId.END -> pos
+            NbtTypeId.BYTE_ARRAY -> checkBounds(pos + 4, readArrayLength(pos).toLong())
+            NbtTypeId.INT_ARRAY -> checkBounds(pos + 4, readArrayLength(pos) * 4L)
+            NbtTypeId.LONG_ARRAY -> checkBounds(pos + 4, readArrayLength(pos) * 8L)
+            NbtTypeId.STRING -> checkBounds(pos + 2, readUnsignedShort(pos).toLong())
+            NbtTypeId.LIST -> skipList(pos)
+            NbtTypeId.COMPOUND -> skipCompound(pos)
+            else -> checkBounds(pos, type.fixedSize.toLong())
+        }
+    }
+
+    private fun skipList(pos: Int): Int {
+        val index = startContainer(pos)
+        val elementType = readTypeId(pos)
+        val length = readInt(pos + 1)
+        var end = pos + 5
+        if (length > 0) {
+            val fixedSize = elementType.fixedSize
+            if (fixedSize >= 0) {
+                end = checkBounds(end, fixedSize.toLong() * length)
+            } else {
+                repeat(length) {
+                    end = skipPayload(elementType, end)
+                }
+            }
+        }
+        containerEnds[index] = end
+        return end
+    }
+
+    private fun skipCompound(pos: Int): Int {
+        val index = startContainer(pos)
+        var end = pos
+        while (true) {
+            val type = readTypeId(end++)
+            if (type == NbtTypeId.END) {
+                break
+            }
+            end = checkBounds(end + 2, readUnsignedShort(end).toLong())
+            end = skipPayload(type, end)
+        }
+        containerEnds[index] = end
+        return end
+    }
+
+    private fun startContainer(pos: Int): Int {
+        if (containerCount == containerStarts.size) {
+            containerStarts = containerStarts.copyOf(containerCount * 2)
+            containerEnds = containerEnds.copyOf(containerCount * 2)
+        }
+        containerStarts[containerCount] = pos
+        return containerCount++
+    }
+
+    private fun findPayloadEnd(type: NbtTypeId, pos: Int): Int {
+        if (type != NbtTypeId.LIST && type != NbtTypeId.COMPOUND) {
+            return skipPayload(type, pos)
+        }
+        val index = containerStarts.binarySearch(pos, 0, containerCount)
+        check(index >= 0) { "No container starts at $pos" }
+        return containerEnds[index]
+    }
+
+    internal fun isEmptyCompound(pos: Int) = buffer.get(pos) == NbtTypeId.END.typeIdByte
+
+    internal fun readCompound(pos: Int): Map<String, NbtTag> {
+        val map = LinkedHashMap<String, NbtTag>()
+        for ((name, tag) in compoundEntries(pos)) {
+            map[name] = tag
+        }
+        return map
+    }
+
+    internal fun compoundEntries(pos: Int) = iterator<Map.Entry<String, NbtTag>> {
+        var current = pos
+        while (true) {
+            val type = readTypeId(current++)
+            if (type == NbtTypeId.END) {
+                break
+            }
+            val nameLength = readUnsignedShort(current)
+            val name = readUtf(current + 2, nameLength)
+            current += 2 + nameLength
+            yield(java.util.AbstractMap.SimpleImmutableEntry(name, readTag(type, current)))
+            current = findPayloadEnd(type, current)
+        }
+    }
+
+    internal fun readTag(type: NbtTypeId, pos: Int): NbtTag {
+        return when (type) {
+            NbtTypeId.END -> TagEnd
+            NbtTypeId.BYTE -> TagByte(buffer.get(pos))
+            NbtTypeId.SHORT -> TagShort(buffer.getShort(pos))
+            NbtTypeId.INT -> TagInt(buffer.getInt(pos))
+            NbtTypeId.LONG -> TagLong(buffer.getLong(pos))
+            NbtTypeId.FLOAT -> TagFloat(buffer.getFloat(pos))
+            NbtTypeId.DOUBLE -> TagDouble(buffer.getDouble(pos))
+            NbtTypeId.BYTE_ARRAY -> TagByteArray(buffer.slice(pos + 4, buffer.getInt(pos)))
+            NbtTypeId.STRING -> TagString(readUtf(pos + 2, readUnsignedShort(pos)))
+            NbtTypeId.LIST -> {
+                val elementType = readTypeId(pos)
+                if (buffer.getInt(pos + 1) <= 0) {
+                    TagList(elementType, emptyList())
+                } else {
+                    TagList(elementType, LazyListElements(this, elementType, pos))
+                }
+            }
+            NbtTypeId.COMPOUND -> TagCompound(LazyCompoundMap(this, pos))
+            NbtTypeId.INT_ARRAY -> TagIntArray(buffer.slice(pos + 4, buffer.getInt(pos) * 4))
+            NbtTypeId.LONG_ARRAY -> TagLongArray(buffer.slice(pos + 4, buffer.getInt(pos) * 8))
+        }
+    }
+
+    internal fun readListElementOffsets(elementType: NbtTypeId, pos: Int, size: Int): IntArray {
+        val offsets = IntArray(size)
+        var current = pos + 5
+        for (i in 0 until size) {
+            offsets[i] = current
+            current = findPayloadEnd(elementType, current)
+        }
+        return offsets
+    }
+
+    internal fun readInt(pos: Int): Int {
+        checkBounds(pos, 4)
+        return buffer.getInt(pos)
+    }
+
+    private fun readTypeId(pos: Int): NbtTypeId {
+        checkBounds(pos, 1)
+        val tagIdByte = buffer.get(pos)
+        return NbtTypeId.getById(tagIdByte)
+            ?: throw MalformedNbtFileException(MCDevBundle("nbt.lang.errors.wrong_tag_id", tagIdByte))
+    }
+
+    private fun readUnsignedShort(pos: Int): Int {
+        checkBounds(pos, 2)
+        return buffer.getShort(pos).toInt() and 0xFFFF
+    }
+
+    private fun readArrayLength(pos: Int): Int {
+        val length = readInt(pos)
+        if (length < 0) {
+            throw MalformedNbtFileException(MCDevBundle("nbt.lang.errors.reading"))
+        }
+        return length
+    }
+
+    /**
+     * Checks that [length] bytes can be read starting at [pos], and returns the offset after them.
+     */
+    private fun checkBounds(pos: Int, length: Long): Int {
+        val end = pos + length
+        if (pos < 0 || end > limit) {
+            throw MalformedNbtFileException(MCDevBundle("nbt.lang.errors.reading"), EOFException())
+        }
+        return end.toInt()
+    }
+
+    /**
+     * Decodes a modified UTF-8 string, as written by [java.io.DataOutput.writeUTF].
+     */
+    private fun readUtf(pos: Int, length: Int): String {
+        val chars = CharArray(length)
+        var count = 0
+        var current = pos
+        val end = pos + length
+        while (current < end) {
+            val a = buffer.get(current).toInt() and 0xFF
+            when (a shr 4) {
+                in 0..7 -> {
+                    chars[count++] = a.toChar()
+                    current++
+                }
+                12, 13 -> {
+                    val b = readContinuationByte(current + 1, end)
+                    chars[count++] = (((a and 0x1F) shl 6) or b).toChar()
+                    current += 2
+                }
+                14 -> {
+                    val b = readContinuationByte(current + 1, end)
+                    val c = readContinuationByte(current + 2, end)
+                    chars[count++] = (((a and 0x0F) shl 12) or (b shl 6) or c).toChar()
+                    current += 3
+                }
+                else -> throw MalformedNbtFileException(MCDevBundle("nbt.lang.errors.reading"))
+            }
+        }
+        return String(chars, 0, count)
+    }
+
+    private fun readContinuationByte(pos: Int, end: Int): Int {
+        if (pos >= end) {
+            throw MalformedNbtFileException(MCDevBundle("nbt.lang.errors.reading"))
+        }
+        val b = buffer.get(pos).toInt()
+        if (b and 0xC0 != 0x80) {
+            throw MalformedNbtFileException(MCDevBundle("nbt.lang.errors.reading"))
+        }
+        return b and 0x3F
+    }
+
+    private val NbtTypeId.fixedSize: Int
+        get() = when (this) {
+            NbtTypeId.END -> 0
+            NbtTypeId.BYTE -> 1
+            NbtTypeId.SHORT -> 2
+            NbtTypeId.INT, NbtTypeId.FLOAT -> 4
+            NbtTypeId.LONG, NbtTypeId.DOUBLE -> 8
+            else -> -1
+        }
+
+    /**
+     * Children of a compound, only read from the buffer once they're looked up. Iterating over a map which hasn't been
+     * looked up yet reads the entries straight from the buffer without keeping them around.
+     */
+    private class LazyCompoundMap(private val reader: NbtReader, private val pos: Int) : AbstractMap<String, NbtTag>() {
+        @Volatile
+        private var map: Map<String, NbtTag>? = null
+
+        private fun materialize() = map ?: reader.readCompound(pos).also { map = it }
+
+        override val entries: Set<Map.Entry<String, NbtTag>> = object : AbstractSet<Map.Entry<String, NbtTag>>() {
+            override val size
+                get() = materialize().size
+
+            override fun iterator() = map?.entries?.iterator() ?: reader.compoundEntries(pos)
+        }
+
+        override val size
+            get() = materialize().size
+
+        override fun isEmpty() = map?.isEmpty() ?: reader.isEmptyCompound(pos)
+
+        override fun containsKey(key: String) = materialize().containsKey(key)
+
+        override fun get(key: String) = materialize()[key]
+    }
+
+    /**
+     * Elements of a non-empty list. Elements of a fixed size are decoded straight from their offset whenever they're
+     * accessed, other elements are created on first access and kept.
+     */
+    private class LazyListElements(
+        private val reader: NbtReader,
+        private val elementType: NbtTypeId,
+        private val pos: Int,
+    ) : AbstractList<NbtTag>(), RandomAccess {
+        override val size = reader.readInt(pos + 1)
+
+        private val fixedSize = with(reader) { elementType.fixedSize }
+
+        @Volatile
+        private var offsets: IntArray? = null
+        private val elements by lazy { arrayOfNulls<NbtTag>(size) }
+
+        override fun get(index: Int): NbtTag {
+            if (index < 0 || index >= size) {
+                throw IndexOutOfBoundsException("Index: $index, Size: $size")
+            }
+
+            if (fixedSize >= 0) {
+                return reader.readTag(elementType, pos + 5 + index * fixedSize)
+            }
+
+            elements[index]?.let { return it }
+            val elementOffsets = offsets
+                ?: reader.readListElementOffsets(elementType, pos, size).also { offsets = it }
+            return reader.readTag(elementType, elementOffsets[index]).also { elements[index] = it }
+        }
+    }
+}
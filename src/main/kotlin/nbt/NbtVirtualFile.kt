@@ -26,11 +26,11 @@ import com.demonwav.mcdev.nbt.editor.NbtToolbar
 import com.demonwav.mcdev.nbt.lang.NbttFile
 import com.demonwav.mcdev.nbt.lang.NbttLanguage
 import com.demonwav.mcdev.util.loggerForTopLevel
-import com.demonwav.mcdev.util.runReadActionAsync
 import com.demonwav.mcdev.util.runWriteTaskLater
 import com.intellij.lang.Language
 import com.intellij.notification.Notification
 import com.intellij.notification.NotificationType
+import com.intellij.openapi.application.runReadAction
 import com.intellij.openapi.fileEditor.impl.IdeDocumentHistoryImpl
 import com.intellij.openapi.fileTypes.PlainTextLanguage
 import com.intellij.openapi.project.Project
@@ -38,9 +38,10 @@ import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.psi.PsiManager
 import com.intellij.testFramework.LightVirtualFile
 import com.intellij.util.ThreeState
-import java.io.DataOutputStream
-import java.util.concurrent.TimeUnit
+import java.io.ByteArrayOutputStream
+import java.io.IOException
 import java.util.zip.GZIPOutputStream
+import org.jetbrains.concurrency.runAsync
 
 private val LOG = loggerForTopLevel()
 
@@ -52,7 +53,7 @@ fun NbtVirtualFile(backingFile: VirtualFile, project: Project): NbtVirtualFile {
     var parseSuccessful: Boolean
 
     try {
-        val (rootCompound, isCompressed) = Nbt.buildTagTree(backingFile.inputStream, TimeUnit.SECONDS.toMillis(10))
+        val (rootCompound, isCompressed) = Nbt.readTagTree(backingFile)
         text = rootCompound.toString()
         compressed = isCompressed
         parseSuccessful = true
@@ -89,62 +90,86 @@ class NbtVirtualFile(
     override fun isTooLargeForIntelligence() = ThreeState.NO
 
     fun writeFile(requester: Any) {
-        runReadActionAsync {
-            val nbttFile = PsiManager.getInstance(project).findFile(this) as? NbttFile
+        // the toolbar belongs to the EDT, so read it before going to the background
+        val compression = toolbar.selection
+
+        runAsync {
+            val text = runReadAction read@{
+                val nbttFile = PsiManager.getInstance(project).findFile(this) as? NbttFile
+
+                if (nbttFile == null) {
+                    Notification(
+                        "NBT Save Error",
+                        MCDevBundle("nbt.file.save_notify.file_type_error.title"),
+                        MCDevBundle("nbt.file.save_notify.file_type_error.content"),
+                        NotificationType.WARNING,
+                    ).notify(project)
+                    return@read null
+                }
 
-            if (nbttFile == null) {
-                Notification(
-                    "NBT Save Error",
-                    MCDevBundle("nbt.file.save_notify.file_type_error.title"),
-                    MCDevBundle("nbt.file.save_notify.file_type_error.content"),
-                    NotificationType.WARNING,
-                ).notify(project)
-                return@runReadActionAsync
-            }
+                if (nbttFile.getRootCompound() == null) {
+                    Notification(
+                        "NBT Save Error",
+                        MCDevBundle("nbt.file.save_notify.parse_error.title"),
+                        MCDevBundle("nbt.file.save_notify.parse_error.content", backingFile.name),
+                        NotificationType.WARNING,
+                    ).notify(project)
+                    return@read null
+                }
 
-            val rootTagParseResult = runCatching { nbttFile.getRootCompound()?.getRootCompoundTag() }
+                nbttFile.viewProvider.contents
+            } ?: return@runAsync
 
-            if (rootTagParseResult.isFailure) {
-                val exception = rootTagParseResult.exceptionOrNull()
-                Notification(
-                    "NBT Save Error",
-                    MCDevBundle("nbt.file.save_notify.parse_exception.title"),
-                    MCDevBundle("nbt.file.save_notify.parse_exception.content", backingFile.name, exception),
-                    NotificationType.WARNING,
-                ).notify(project)
-                return@runReadActionAsync
+            // encode straight from the text, this also makes sure it's valid before the file gets overwritten
+            val encodeResult = runCatching {
+                val writer = NbtWriter(text)
+                val bytes = ByteArrayOutputStream()
+                val stream = when (compression) {
+                    CompressionSelection.GZIP -> GZIPOutputStream(bytes, 64 * 1024)
+                    CompressionSelection.UNCOMPRESSED -> bytes
+                }
+                stream.use { writer.writeTo(it) }
+                bytes.toByteArray()
             }
 
-            val rootTag = rootTagParseResult.getOrNull()
-            if (rootTag == null) {
+            if (encodeResult.isFailure) {
+                val exception = encodeResult.exceptionOrNull()
                 Notification(
                     "NBT Save Error",
-                    MCDevBundle("nbt.file.save_notify.parse_error.title"),
-                    MCDevBundle("nbt.file.save_notify.parse_error.content", backingFile.name),
+                    MCDevBundle("nbt.file.save_notify.parse_exception.title"),
+                    MCDevBundle("nbt.file.save_notify.parse_exception.content", backingFile.name, exception),
                     NotificationType.WARNING,
                 ).notify(project)
-                return@runReadActionAsync
+                return@runAsync
             }
 
+            val bytes = encodeResult.getOrThrow()
             runWriteTaskLater {
                 // just to be safe
-                this.parent.bom = null
-                val filteredStream = when (toolbar.selection) {
-                    CompressionSelection.GZIP -> GZIPOutputStream(this.parent.getOutputStream(requester))
-                    CompressionSelection.UNCOMPRESSED -> this.parent.getOutputStream(requester)
-                }
-
-                DataOutputStream(filteredStream).use { stream ->
-                    rootTag.write(stream)
+                backingFile.bom = null
+
+                try {
+                    backingFile.getOutputStream(requester).use { it.write(bytes) }
+                } catch (e: IOException) {
+                    Notification(
+                        "NBT Save Error",
+                        MCDevBundle("nbt.file.save_notify.io_error.title"),
+                        MCDevBundle("nbt.file.save_notify.io_error.content", backingFile.name, e.message),
+                        NotificationType.WARNING,
+                    ).notify(project)
+                    return@runWriteTaskLater
                 }
-
-                Notification(
-                    "NBT Save Success",
-                    MCDevBundle("nbt.file.save_notify.success.title"),
-                    MCDevBundle("nbt.file.save_notify.success.content", backingFile.name),
-                    NotificationType.INFORMATION,
-                ).notify(project)
+                notifySaved()
             }
         }
     }
+
+    private fun notifySaved() {
+        Notification(
+            "NBT Save Success",
+            MCDevBundle("nbt.file.save_notify.success.title"),
+            MCDevBundle("nbt.file.save_notify.success.content", backingFile.name),
+            NotificationType.INFORMATION,
+        ).notify(project)
+    }
 }
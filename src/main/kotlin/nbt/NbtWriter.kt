@@ -0,0 +1,256 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.nbt
+
+import com.demonwav.mcdev.asset.MCDevBundle
+import com.demonwav.mcdev.nbt.lang.NbttLexerAdapter
+import com.demonwav.mcdev.nbt.lang.gen.psi.NbttTypes
+import com.demonwav.mcdev.nbt.lang.psi.mixins.impl.getNbtStringValue
+import com.demonwav.mcdev.nbt.lang.psi.parseNbttByte
+import com.demonwav.mcdev.nbt.lang.psi.parseNbttDouble
+import com.demonwav.mcdev.nbt.lang.psi.parseNbttFloat
+import com.demonwav.mcdev.nbt.lang.psi.parseNbttInt
+import com.demonwav.mcdev.nbt.lang.psi.parseNbttLong
+import com.demonwav.mcdev.nbt.lang.psi.parseNbttShort
+import com.demonwav.mcdev.nbt.tags.NbtTypeId
+import com.intellij.psi.TokenType
+import com.intellij.psi.tree.IElementType
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.io.OutputStream
+
+/**
+ * Encodes NBTT text into binary NBT straight from the token stream, without building the PSI or a tag tree first.
+ *
+ * The output is the same as what [com.demonwav.mcdev.nbt.tags.RootCompound.write] produces for the tags the NBTT
+ * text describes. Creating the writer encodes the whole text into memory, throwing a [MalformedNbtFileException]
+ * (or a [NumberFormatException] for out of range values) if it isn't valid, so nothing is written out for invalid
+ * text. The list sizes and tag types that binary NBT stores up front are patched in once they're known.
+ */
+class NbtWriter(private val text: CharSequence) {
+    private val lexer = NbttLexerAdapter()
+    private val buffer = PatchableOutputStream()
+    private val out = DataOutputStream(buffer)
+
+    init {
+        lexer.start(text)
+        val name = readName()
+        expect(NbttTypes.COLON)
+        out.writeByte(NbtTypeId.COMPOUND.typeIdByte.toInt())
+        out.writeUTF(name)
+        expect(NbttTypes.LBRACE)
+        writeCompound()
+        if (peek() != null) {
+            unexpected()
+        }
+    }
+
+    fun writeTo(stream: OutputStream) {
+        buffer.writeTo(stream)
+    }
+
+    private fun writeTag(): NbtTypeId {
+        val tokenType = peek()
+        if (tokenType == NbttTypes.LBRACE) {
+            lexer.advance()
+            writeCompound()
+            return NbtTypeId.COMPOUND
+        }
+
+        val type = when (tokenType) {
+            NbttTypes.BYTE_LITERAL -> NbtTypeId.BYTE.also { out.writeByte(parseNbttByte(lexer.tokenText).toInt()) }
+            NbttTypes.SHORT_LITERAL -> NbtTypeId.SHORT.also { out.writeShort(parseNbttShort(lexer.tokenText).toInt()) }
+            NbttTypes.INT_LITERAL -> NbtTypeId.INT.also { out.writeInt(parseNbttInt(lexer.tokenText)) }
+            NbttTypes.LONG_LITERAL -> NbtTypeId.LONG.also { out.writeLong(parseNbttLong(lexer.tokenText)) }
+            NbttTypes.FLOAT_LITERAL -> NbtTypeId.FLOAT.also { out.writeFloat(parseNbttFloat(lexer.tokenText)) }
+            NbttTypes.DOUBLE_LITERAL -> NbtTypeId.DOUBLE.also { out.writeDouble(parseNbttDouble(lexer.tokenText)) }
+            NbttTypes.STRING_LITERAL, NbttTypes.UNQUOTED_STRING_LITERAL ->
+                NbtTypeId.STRING.also { out.writeUTF(getNbtStringValue(lexer.tokenText)) }
+            NbttTypes.LBRACKET -> return writeList()
+            NbttTypes.BYTES -> return writeArray(NbtTypeId.BYTE_ARRAY, NbttTypes.BYTE_LITERAL) {
+                out.writeByte(parseNbttByte(it).toInt())
+            }
+            NbttTypes.INTS -> return writeArray(NbtTypeId.INT_ARRAY, NbttTypes.INT_LITERAL) {
+                out.writeInt(parseNbttInt(it))
+            }
+            NbttTypes.LONGS -> return writeArray(NbtTypeId.LONG_ARRAY, NbttTypes.LONG_LITERAL) {
+                out.writeLong(parseNbttLong(it))
+            }
+            else -> unexpected()
+        }
+        lexer.advance()
+        return type
+    }
+
+    /**
+     * Writes the named tags of a compound whose opening brace has already been consumed, up to and including the
+     * closing brace.
+     */
+    private fun writeCompound() {
+        val indices = HashMap<String, Int>()
+        var starts = IntArray(16)
+        var count = 0
+
+        while (peek() != NbttTypes.RBRACE) {
+            val start = buffer.size()
+            val name = readName()
+            expect(NbttTypes.COLON)
+            out.writeByte(0)
+            out.writeUTF(name)
+            buffer.patchByte(start, writeTag().typeIdByte)
+
+            val existing = indices[name]
+            if (existing == null) {
+                if (count == starts.size) {
+                    starts = starts.copyOf(count * 2)
+                }
+                indices[name] = count
+                starts[count++] = start
+                continue
+            }
+
+            // A repeated name replaces the value of the first one but keeps its position, like it does in the map
+            // backing a TagCompound
+            val existingEnd = if (existing + 1 < count) starts[existing + 1] else start
+            val delta = buffer.replace(starts[existing], existingEnd, start)
+            for (i in existing + 1 until count) {
+                starts[i] += delta
+            }
+        }
+        lexer.advance()
+
+        out.writeByte(NbtTypeId.END.typeIdByte.toInt())
+    }
+
+    private fun writeList(): NbtTypeId {
+        lexer.advance()
+        val header = buffer.size()
+        out.writeByte(0)
+        out.writeInt(0)
+
+        var type = NbtTypeId.END
+        var size = 0
+        while (peek() != NbttTypes.RBRACKET) {
+            val tagType = writeTag()
+            if (size != 0 && tagType != type) {
+                throw MalformedNbtFileException(MCDevBundle("nbt.lang.errors.invalid_list"))
+            }
+            type = tagType
+            size++
+
+            if (peek() == NbttTypes.COMMA) {
+                lexer.advance()
+            }
+        }
+        lexer.advance()
+
+        buffer.patchByte(header, type.typeIdByte)
+        buffer.patchInt(header + 1, size)
+        return NbtTypeId.LIST
+    }
+
+    private inline fun writeArray(type: NbtTypeId, literal: IElementType, writeValue: (String) -> Unit): NbtTypeId {
+        lexer.advance()
+        expect(NbttTypes.LPAREN)
+        val header = buffer.size()
+        out.writeInt(0)
+
+        var size = 0
+        while (peek() != NbttTypes.RPAREN) {
+            if (peek() != literal) {
+                unexpected()
+            }
+            writeValue(lexer.tokenText)
+            lexer.advance()
+            size++
+
+            if (peek() == NbttTypes.COMMA) {
+                lexer.advance()
+            }
+        }
+        lexer.advance()
+
+        buffer.patchInt(header, size)
+        return type
+    }
+
+    private fun readName(): String {
+        val tokenType = peek()
+        if (tokenType != NbttTypes.STRING_LITERAL && tokenType != NbttTypes.UNQUOTED_STRING_LITERAL) {
+            unexpected()
+        }
+        val name = getNbtStringValue(lexer.tokenText)
+        lexer.advance()
+        return name
+    }
+
+    private fun expect(tokenType: IElementType) {
+        if (peek() != tokenType) {
+            unexpected()
+        }
+        lexer.advance()
+    }
+
+    /**
+     * Skips any whitespace and returns the type of the current token, or `null` at the end of the text.
+     */
+    private fun peek(): IElementType? {
+        while (lexer.tokenType == TokenType.WHITE_SPACE) {
+            lexer.advance()
+        }
+        return lexer.tokenType
+    }
+
+    private fun unexpected(): Nothing {
+        if (lexer.tokenType == null) {
+            throw MalformedNbtFileException(MCDevBundle("nbt.lang.errors.unexpected_eof"))
+        }
+        throw MalformedNbtFileException(
+            MCDevBundle("nbt.lang.errors.unexpected_token", lexer.tokenText, lexer.tokenStart),
+        )
+    }
+
+    private class PatchableOutputStream : ByteArrayOutputStream(8192) {
+        fun patchByte(pos: Int, value: Byte) {
+            buf[pos] = value
+        }
+
+        fun patchInt(pos: Int, value: Int) {
+            buf[pos] = (value ushr 24).toByte()
+            buf[pos + 1] = (value ushr 16).toByte()
+            buf[pos + 2] = (value ushr 8).toByte()
+            buf[pos + 3] = value.toByte()
+        }
+
+        /**
+         * Replaces the bytes between [start] and [end] with everything written from [from] onwards, which is removed
+         * from the end. Returns how much longer the replaced range got.
+         */
+        fun replace(start: Int, end: Int, from: Int): Int {
+            val replacement = buf.copyOfRange(from, count)
+            val between = buf.copyOfRange(end, from)
+            replacement.copyInto(buf, start)
+            between.copyInto(buf, start + replacement.size)
+            count = start + replacement.size + between.size
+            return replacement.size - (end - start)
+        }
+    }
+}
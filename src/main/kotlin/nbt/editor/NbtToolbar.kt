@@ -22,7 +22,6 @@ package com.demonwav.mcdev.nbt.editor
 
 import com.demonwav.mcdev.asset.MCDevBundle
 import com.demonwav.mcdev.nbt.NbtVirtualFile
-import com.demonwav.mcdev.util.runWriteTaskLater
 import com.intellij.openapi.ui.DialogPanel
 import com.intellij.ui.EnumComboBoxModel
 import com.intellij.ui.dsl.builder.bindItem
@@ -46,9 +45,7 @@ class NbtToolbar(nbtFile: NbtVirtualFile) {
                     .enabled(nbtFile.isWritable && nbtFile.parseSuccessful)
                 button(MCDevBundle("nbt.compression.save.button")) {
                     panel.apply()
-                    runWriteTaskLater {
-                        nbtFile.writeFile(this)
-                    }
+                    nbtFile.writeFile(this)
                 }
             }
             visible(nbtFile.parseSuccessful)
@@ -0,0 +1,264 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.nbt.filetype
+
+import com.demonwav.mcdev.nbt.tags.NbtTypeId
+import com.intellij.openapi.util.io.ByteArraySequence
+import com.intellij.openapi.util.io.ByteSequence
+import java.io.EOFException
+import java.io.IOException
+import java.io.InputStream
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPInputStream.GZIP_MAGIC
+
+/**
+ * Cheap check for whether a file prefix looks like NBT data, for [NbtFileTypeDetector].
+ *
+ * Rather than building the tag tree, this walks the structure of the data: the root compound header, the tag ids, and
+ * the length prefixes of strings, arrays and lists, without decoding any values. Only the bytes already in the prefix
+ * are looked at, and GZIP compressed data only has a small window inflated, so the work done per file is bounded by
+ * the prefix size. Running out of bytes without finding an error counts as a match, unless the data is known to end
+ * there.
+ */
+internal object NbtSignature {
+    private const val INFLATE_WINDOW = 4 * 1024
+
+    // the same limit Minecraft uses
+    private const val MAX_DEPTH = 512
+
+    fun matches(prefix: ByteSequence, fileLength: Long): Boolean {
+        if (prefix.length() < 2) {
+            return false
+        }
+
+        if (!isGzipped(prefix)) {
+            val totalLength = if (fileLength >= prefix.length()) fileLength else Long.MAX_VALUE
+            return Validator(prefix, totalLength).validate()
+        }
+
+        val window = ByteArray(INFLATE_WINDOW)
+        var size = 0
+        var complete = false
+        try {
+            GZIPInputStream(ByteSequenceInputStream(prefix), 512).use { stream ->
+                while (size < window.size) {
+                    val read = stream.read(window, size, window.size - size)
+                    if (read < 0) {
+                        complete = true
+                        break
+                    }
+                    size += read
+                }
+            }
+        } catch (e: EOFException) {
+            // the prefix ends in the middle of the compressed data, check what could be inflated
+        } catch (e: IOException) {
+            return false
+        }
+
+        val totalLength = if (complete) size.toLong() else Long.MAX_VALUE
+        return Validator(ByteArraySequence(window, 0, size), totalLength).validate()
+    }
+
+    private fun isGzipped(prefix: ByteSequence): Boolean {
+        val first = prefix.byteAt(0).toInt() and 0xFF
+        val second = prefix.byteAt(1).toInt() and 0xFF
+        return first == GZIP_MAGIC and 0xFF && second == GZIP_MAGIC ushr 8
+    }
+
+    /**
+     * Walks the NBT structure in [data], which holds the start of data that is [totalLength] bytes long in total, or
+     * [Long.MAX_VALUE] if that isn't known.
+     */
+    private class Validator(private val data: ByteSequence, private val totalLength: Long) {
+        private val window = data.length()
+        private var pos = 0L
+
+        // set when the window ran out before any error was found
+        private var exhausted = false
+
+        // for every open compound or list, the number of elements left in the list or -1 for a compound
+        private val remaining = IntArray(MAX_DEPTH)
+        private val listTypes = arrayOfNulls<NbtTypeId>(MAX_DEPTH)
+        private var depth = 0
+
+        fun validate(): Boolean {
+            // the root compound's header has to fit in the window for this to count as a match
+            if (!require(3) || readType() != NbtTypeId.COMPOUND) {
+                return false
+            }
+            if (!skip(readUnsignedShort().toLong())) {
+                return false
+            }
+            push(-1, NbtTypeId.END)
+
+            while (depth > 0) {
+                val top = depth - 1
+                val type: NbtTypeId
+                if (remaining[top] < 0) {
+                    if (!require(1)) {
+                        return exhausted
+                    }
+                    type = readType() ?: return false
+                    if (type == NbtTypeId.END) {
+                        depth--
+                        continue
+                    }
+                    if (!require(2) || !skip(readUnsignedShort().toLong())) {
+                        return exhausted
+                    }
+                } else {
+                    if (remaining[top] == 0) {
+                        depth--
+                        continue
+                    }
+                    remaining[top]--
+                    type = listTypes[top]!!
+                }
+
+                when (type) {
+                    NbtTypeId.LIST -> {
+                        if (!require(5)) {
+                            return exhausted
+                        }
+                        val elementType = readType() ?: return false
+                        val size = readInt()
+                        if (size < 0 || elementType == NbtTypeId.END && size > 0) {
+                            return false
+                        }
+                        val elementSize = fixedSize(elementType)
+                        if (elementSize > 0) {
+                            // no need to look at primitives one by one
+                            if (!skip(size.toLong() * elementSize)) {
+                                return exhausted
+                            }
+                        } else if (!push(size, elementType)) {
+                            return false
+                        }
+                    }
+                    NbtTypeId.COMPOUND -> if (!push(-1, NbtTypeId.END)) {
+                        return false
+                    }
+                    NbtTypeId.STRING -> if (!require(2) || !skip(readUnsignedShort().toLong())) {
+                        return exhausted
+                    }
+                    NbtTypeId.BYTE_ARRAY, NbtTypeId.INT_ARRAY, NbtTypeId.LONG_ARRAY -> {
+                        if (!require(4)) {
+                            return exhausted
+                        }
+                        val size = readInt()
+                        if (size < 0) {
+                            return false
+                        }
+                        val elementSize = when (type) {
+                            NbtTypeId.BYTE_ARRAY -> 1
+                            NbtTypeId.INT_ARRAY -> 4
+                            else -> 8
+                        }
+                        if (!skip(size.toLong() * elementSize)) {
+                            return exhausted
+                        }
+                    }
+                    // END can only be the element type of an empty list, so it never gets here
+                    else -> if (!skip(fixedSize(type).toLong())) {
+                        return exhausted
+                    }
+                }
+            }
+
+            return true
+        }
+
+        private fun push(size: Int, listType: NbtTypeId): Boolean {
+            if (depth == MAX_DEPTH) {
+                return false
+            }
+            remaining[depth] = size
+            listTypes[depth] = listType
+            depth++
+            return true
+        }
+
+        /**
+         * Checks that the next [count] bytes are in the window. If they aren't, [exhausted] is set if that's only
+         * because the window is smaller than the data.
+         */
+        private fun require(count: Long): Boolean {
+            val end = pos + count
+            if (end > totalLength) {
+                return false
+            }
+            if (end > window) {
+                exhausted = true
+                return false
+            }
+            return true
+        }
+
+        private fun skip(count: Long): Boolean {
+            if (!require(count)) {
+                return false
+            }
+            pos += count
+            return true
+        }
+
+        private fun readByte() = data.byteAt(pos++.toInt()).toInt()
+
+        private fun readType() = NbtTypeId.getById(readByte().toByte())
+
+        private fun readUnsignedShort() = (readByte() and 0xFF shl 8) or (readByte() and 0xFF)
+
+        private fun readInt() = (readUnsignedShort() shl 16) or readUnsignedShort()
+    }
+
+    private class ByteSequenceInputStream(private val bytes: ByteSequence) : InputStream() {
+        private var pos = 0
+
+        override fun read() = if (pos < bytes.length()) bytes.byteAt(pos++).toInt() and 0xFF else -1
+
+        override fun read(b: ByteArray, off: Int, len: Int): Int {
+            if (len == 0) {
+                return 0
+            }
+            val count = minOf(len, bytes.length() - pos)
+            if (count <= 0) {
+                return -1
+            }
+            for (i in 0 until count) {
+                b[off + i] = bytes.byteAt(pos + i)
+            }
+            pos += count
+            return count
+        }
+    }
+
+    /**
+     * The payload size of tags of [type] if it's a primitive, otherwise 0.
+     */
+    private fun fixedSize(type: NbtTypeId) = when (type) {
+        NbtTypeId.BYTE -> 1
+        NbtTypeId.SHORT -> 2
+        NbtTypeId.INT, NbtTypeId.FLOAT -> 4
+        NbtTypeId.LONG, NbtTypeId.DOUBLE -> 8
+        else -> 0
+    }
+}
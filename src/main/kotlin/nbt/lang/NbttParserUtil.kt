@@ -0,0 +1,86 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.nbt.lang
+
+import com.demonwav.mcdev.nbt.lang.gen.psi.NbttTypes
+import com.demonwav.mcdev.nbt.lang.psi.NbttArrayBodyElementType
+import com.intellij.lang.PsiBuilder
+import com.intellij.lang.parser.GeneratedParserUtilBase
+import com.intellij.psi.tree.IElementType
+import com.intellij.psi.tree.TokenSet
+
+object NbttParserUtil : GeneratedParserUtilBase() {
+
+    @JvmStatic
+    fun parseByteArrayBody(builder: PsiBuilder, level: Int) =
+        parseArrayBody(builder, NbttArrayBodyElementType.BYTE_ARRAY_BODY)
+
+    @JvmStatic
+    fun parseIntArrayBody(builder: PsiBuilder, level: Int) =
+        parseArrayBody(builder, NbttArrayBodyElementType.INT_ARRAY_BODY)
+
+    @JvmStatic
+    fun parseLongArrayBody(builder: PsiBuilder, level: Int) =
+        parseArrayBody(builder, NbttArrayBodyElementType.LONG_ARRAY_BODY)
+
+    /**
+     * Collapses the values up to the closing parenthesis into a single [NbttArrayBodyElementType] node, the values
+     * are only parsed into their own elements if something asks for the children of that node.
+     *
+     * The body ends at the first token that can't be part of an array's contents, so an unclosed array doesn't
+     * swallow the rest of the file, and a string followed by a colon is left alone as the name of the next tag.
+     */
+    private fun parseArrayBody(builder: PsiBuilder, type: IElementType): Boolean {
+        if (!isArrayContent(builder)) {
+            return true
+        }
+
+        val marker = builder.mark()
+        while (isArrayContent(builder)) {
+            builder.advanceLexer()
+        }
+        marker.collapse(type)
+        return true
+    }
+
+    private fun isArrayContent(builder: PsiBuilder): Boolean {
+        val tokenType = builder.tokenType
+        if (tokenType == NbttTypes.COMMA) {
+            return true
+        }
+        if (tokenType !in ARRAY_VALUE_LITERALS) {
+            return false
+        }
+        return (tokenType != NbttTypes.STRING_LITERAL && tokenType != NbttTypes.UNQUOTED_STRING_LITERAL) ||
+            builder.lookAhead(1) != NbttTypes.COLON
+    }
+
+    private val ARRAY_VALUE_LITERALS = TokenSet.create(
+        NbttTypes.BYTE_LITERAL,
+        NbttTypes.SHORT_LITERAL,
+        NbttTypes.INT_LITERAL,
+        NbttTypes.LONG_LITERAL,
+        NbttTypes.FLOAT_LITERAL,
+        NbttTypes.DOUBLE_LITERAL,
+        NbttTypes.STRING_LITERAL,
+        NbttTypes.UNQUOTED_STRING_LITERAL,
+    )
+}
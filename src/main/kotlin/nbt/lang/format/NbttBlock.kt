@@ -27,6 +27,7 @@ import com.demonwav.mcdev.nbt.lang.gen.psi.NbttIntArray
 import com.demonwav.mcdev.nbt.lang.gen.psi.NbttList
 import com.demonwav.mcdev.nbt.lang.gen.psi.NbttLongArray
 import com.demonwav.mcdev.nbt.lang.gen.psi.NbttTypes
+import com.demonwav.mcdev.nbt.lang.psi.NbttArrayBody
 import com.intellij.formatting.ASTBlock
 import com.intellij.formatting.Alignment
 import com.intellij.formatting.Block
@@ -90,7 +91,11 @@ class NbttBlock(
 
     override fun getSubBlocks(): MutableList<Block> = subBlocksDelegate
     private val subBlocksDelegate: MutableList<Block> by lazy {
-        node.getChildren(null).mapNotNull { node ->
+        node.getChildren(null).flatMap { node ->
+            // array values are formatted as direct children of the array, not of the collapsed body between the
+            // parentheses. This is the only place the body is expanded on purpose, as formatting is explicit and rare
+            if (node is NbttArrayBody) node.getChildren(null).asList() else listOf(node)
+        }.mapNotNull { node ->
             if (node.isWhitespaceOrEmpty) {
                 null
             } else {
@@ -103,6 +103,8 @@ class NbttFoldingBuilder : FoldingBuilder {
                         )
                     }
                 }
+                // arrays can't contain anything foldable, don't force their contents to be parsed
+                return
             }
         }
 
@@ -111,9 +113,9 @@ class NbttFoldingBuilder : FoldingBuilder {
 
     override fun isCollapsedByDefault(node: ASTNode): Boolean {
         val size = when (val psi = node.psi) {
-            is NbttByteArray -> psi.getByteList().size
-            is NbttIntArray -> psi.getIntList().size
-            is NbttLongArray -> psi.getLongList().size
+            is NbttByteArray -> psi.getArrayBody()?.valueCount ?: 0
+            is NbttIntArray -> psi.getArrayBody()?.valueCount ?: 0
+            is NbttLongArray -> psi.getArrayBody()?.valueCount ?: 0
             is NbttList -> psi.getTagList().size
             is NbttCompound -> {
                 if (psi.getNamedTagList().size == 1) {
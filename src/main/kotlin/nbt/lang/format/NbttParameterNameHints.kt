@@ -63,7 +63,7 @@ class NbttParameterNameHints : InlayParameterHintsProvider {
                 }
             }
             is NbttByteArray -> {
-                val size = element.getByteList().size
+                val size = element.getArrayBody()?.valueCount ?: 0
                 list.add(
                     InlayInfo(
                         children(size),
@@ -73,13 +73,13 @@ class NbttParameterNameHints : InlayParameterHintsProvider {
 
                 if (size > 5) {
                     // Index hints
-                    element.getByteList().forEachIndexed { i, param ->
-                        list.add(InlayInfo("$i", param.textRange.startOffset))
+                    element.getArrayBody()?.valueStartOffsets()?.forEachIndexed { i, offset ->
+                        list.add(InlayInfo("$i", offset))
                     }
                 }
             }
             is NbttIntArray -> {
-                val size = element.getIntList().size
+                val size = element.getArrayBody()?.valueCount ?: 0
                 list.add(
                     InlayInfo(
                         children(size),
@@ -89,13 +89,13 @@ class NbttParameterNameHints : InlayParameterHintsProvider {
 
                 if (size > 5) {
                     // Index hints
-                    element.getIntList().forEachIndexed { i, param ->
-                        list.add(InlayInfo("$i", param.textRange.startOffset))
+                    element.getArrayBody()?.valueStartOffsets()?.forEachIndexed { i, offset ->
+                        list.add(InlayInfo("$i", offset))
                     }
                 }
             }
             is NbttLongArray -> {
-                val size = element.getLongList().size
+                val size = element.getArrayBody()?.valueCount ?: 0
                 list.add(
                     InlayInfo(
                         children(size),
@@ -104,8 +104,8 @@ class NbttParameterNameHints : InlayParameterHintsProvider {
                 )
 
                 // Index hints
-                element.getLongList().forEachIndexed { i, param ->
-                    list.add(InlayInfo("$i", param.textRange.startOffset))
+                element.getArrayBody()?.valueStartOffsets()?.forEachIndexed { i, offset ->
+                    list.add(InlayInfo("$i", offset))
                 }
             }
             is NbttNamedTag -> {
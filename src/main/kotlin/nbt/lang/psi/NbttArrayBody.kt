@@ -0,0 +1,114 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.nbt.lang.psi
+
+import com.intellij.psi.impl.source.tree.LazyParseablePsiElement
+
+/**
+ * The lazily parsed contents of an NBTT array, see [NbttArrayBodyElementType]. The values can be read with
+ * [valueCount], [valueStartOffsets] and the `decode` functions without the body ever being parsed.
+ */
+class NbttArrayBody(type: NbttArrayBodyElementType, text: CharSequence?) :
+    LazyParseablePsiElement(type, text), NbttElement {
+
+    val valueCount: Int
+        get() {
+            var count = 0
+            forEachValue(chars) { _, _ -> count++ }
+            return count
+        }
+
+    /**
+     * The offsets in the file at which each value starts.
+     */
+    fun valueStartOffsets(): IntArray {
+        val text = chars
+        val offsets = IntArray(valueCount)
+        val startOffset = textRange.startOffset
+        var index = 0
+        forEachValue(text) { start, _ -> offsets[index++] = startOffset + start }
+        return offsets
+    }
+
+    fun decodeBytes(): ByteArray {
+        val text = chars
+        val values = ByteArray(valueCount)
+        var index = 0
+        forEachValue(text) { start, end ->
+            values[index++] = when {
+                text.matches(start, end, "true") -> 1
+                text.matches(start, end, "false") -> 0
+                else -> {
+                    val value = Integer.parseInt(text, start, stripSuffix(text, end, 'b'), 10)
+                    if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+                        throw NumberFormatException("Value out of range: ${text.subSequence(start, end)}")
+                    }
+                    value.toByte()
+                }
+            }
+        }
+        return values
+    }
+
+    fun decodeInts(): IntArray {
+        val text = chars
+        val values = IntArray(valueCount)
+        var index = 0
+        forEachValue(text) { start, end ->
+            values[index++] = Integer.parseInt(text, start, stripSuffix(text, end, 'i'), 10)
+        }
+        return values
+    }
+
+    fun decodeLongs(): LongArray {
+        val text = chars
+        val values = LongArray(valueCount)
+        var index = 0
+        forEachValue(text) { start, end ->
+            values[index++] = java.lang.Long.parseLong(text, start, stripSuffix(text, end, 'l'), 10)
+        }
+        return values
+    }
+
+    override fun toString() = "NbttArrayBody($elementType)"
+
+    private companion object {
+        inline fun forEachValue(text: CharSequence, action: (start: Int, end: Int) -> Unit) {
+            var start = -1
+            for (i in 0..text.length) {
+                if (i == text.length || text[i] == ',' || text[i].isWhitespace()) {
+                    if (start != -1) {
+                        action(start, i)
+                        start = -1
+                    }
+                } else if (start == -1) {
+                    start = i
+                }
+            }
+        }
+
+        fun stripSuffix(text: CharSequence, end: Int, suffix: Char) =
+            if (text[end - 1].equals(suffix, ignoreCase = true)) end - 1 else end
+
+        fun CharSequence.matches(start: Int, end: Int, value: String) =
+            end - start == value.length && regionMatches(start, value, 0, value.length)
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.nbt.lang.psi
+
+import com.demonwav.mcdev.asset.MCDevBundle
+import com.demonwav.mcdev.nbt.lang.NbttLanguage
+import com.demonwav.mcdev.nbt.lang.gen.NbttLexer
+import com.demonwav.mcdev.nbt.lang.gen.psi.NbttTypes
+import com.intellij.lang.ASTNode
+import com.intellij.lang.PsiBuilderFactory
+import com.intellij.lexer.FlexAdapter
+import com.intellij.psi.PsiElement
+import com.intellij.psi.tree.IElementType
+import com.intellij.psi.tree.ILazyParseableElementType
+import org.jetbrains.annotations.NonNls
+
+/**
+ * Element type for the contents of a `bytes(...)`, `ints(...)` or `longs(...)` array. The parser collapses the
+ * contents into a single [NbttArrayBody] which is only parsed into one element per value when its children are
+ * requested, e.g. by highlighting. Saving decodes the values straight from the text instead.
+ */
+class NbttArrayBodyElementType(
+    @NonNls debugName: String,
+    private val lexerState: Int,
+    private val valueLiteral: IElementType,
+    private val valueElement: IElementType,
+    @NonNls private val valueName: String,
+) : ILazyParseableElementType(debugName, NbttLanguage) {
+
+    override fun createNode(text: CharSequence?) = NbttArrayBody(this, text)
+
+    override fun doParseContents(chameleon: ASTNode, psi: PsiElement): ASTNode {
+        val builder = PsiBuilderFactory.getInstance()
+            .createBuilder(psi.project, chameleon, ArrayLexerAdapter(lexerState), language, chameleon.chars)
+
+        val root = builder.mark()
+        while (!builder.eof()) {
+            val tokenType = builder.tokenType
+            val marker = builder.mark()
+            builder.advanceLexer()
+            when (tokenType) {
+                valueLiteral -> marker.done(valueElement)
+                NbttTypes.COMMA -> marker.drop()
+                else -> marker.error(MCDevBundle("nbt.lang.errors.invalid_array_value", valueName))
+            }
+        }
+        root.done(this)
+        return builder.treeBuilt.firstChildNode
+    }
+
+    /**
+     * The chameleon text doesn't include the opening parenthesis, so lexing has to start in the array's state.
+     */
+    private class ArrayLexerAdapter(private val state: Int) : FlexAdapter(NbttLexer()) {
+        override fun start(buffer: CharSequence, startOffset: Int, endOffset: Int, initialState: Int) {
+            super.start(buffer, startOffset, endOffset, state)
+        }
+    }
+
+    companion object {
+        @JvmField
+        val BYTE_ARRAY_BODY = NbttArrayBodyElementType(
+            "BYTE_ARRAY_BODY",
+            NbttLexer.IN_BYTE_ARRAY,
+            NbttTypes.BYTE_LITERAL,
+            NbttTypes.BYTE,
+            "byte",
+        )
+
+        @JvmField
+        val INT_ARRAY_BODY = NbttArrayBodyElementType(
+            "INT_ARRAY_BODY",
+            NbttLexer.IN_INT_ARRAY,
+            NbttTypes.INT_LITERAL,
+            NbttTypes.INT,
+            "int",
+        )
+
+        @JvmField
+        val LONG_ARRAY_BODY = NbttArrayBodyElementType(
+            "LONG_ARRAY_BODY",
+            NbttLexer.IN_LONG_ARRAY,
+            NbttTypes.LONG_LITERAL,
+            NbttTypes.LONG,
+            "long",
+        )
+    }
+}
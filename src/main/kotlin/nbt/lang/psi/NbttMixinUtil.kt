@@ -37,6 +37,7 @@ import com.demonwav.mcdev.nbt.lang.gen.psi.NbttString
 import com.demonwav.mcdev.nbt.lang.gen.psi.NbttTag
 import com.demonwav.mcdev.nbt.tags.NbtTag
 import com.demonwav.mcdev.nbt.tags.NbtTypeId
+import org.apache.commons.lang3.StringUtils
 
 fun NbttTag.getNbtTag(): NbtTag {
     return when (this.getType()) {
@@ -55,3 +56,29 @@ fun NbttTag.getNbtTag(): NbtTag {
         else -> throw MalformedNbtFileException(MCDevBundle("nbt.lang.errors.unknown"))
     }
 }
+
+// Literal parsing shared by the PSI and NbtWriter, which encodes straight from the token stream
+
+fun parseNbttByte(text: String): Byte {
+    return when (text) {
+        "false" -> 0
+        "true" -> 1
+        else -> StringUtils.replaceChars(text.trim(), "bB", null).toByte()
+    }
+}
+
+fun parseNbttShort(text: String) = StringUtils.replaceChars(text.trim(), "sS", null).toShort()
+
+fun parseNbttInt(text: String) = StringUtils.replaceChars(text.trim(), "iI", null).toInt()
+
+fun parseNbttLong(text: String) = StringUtils.replaceChars(text.trim(), "lL", null).toLong()
+
+fun parseNbttFloat(text: String): Float {
+    // Can't just regex out the f, since "Infinity" contains an f
+    if (text.contains("Infinity")) {
+        return text.trim().let { it.substring(0, it.length - 1) }.toFloat()
+    }
+    return StringUtils.replaceChars(text.trim(), "fF", null).toFloat()
+}
+
+fun parseNbttDouble(text: String) = StringUtils.replaceChars(text.trim(), "dD", null).toDouble()
@@ -21,11 +21,13 @@
 package com.demonwav.mcdev.nbt.lang.psi.mixins
 
 import com.demonwav.mcdev.nbt.lang.gen.psi.NbttByte
+import com.demonwav.mcdev.nbt.lang.psi.NbttArrayBody
 import com.demonwav.mcdev.nbt.lang.psi.NbttElement
 import com.demonwav.mcdev.nbt.tags.TagByteArray
 
 interface NbttByteArrayMixin : NbttElement {
 
+    fun getArrayBody(): NbttArrayBody?
     fun getByteList(): List<NbttByte>
     fun getByteArrayTag(): TagByteArray
 }
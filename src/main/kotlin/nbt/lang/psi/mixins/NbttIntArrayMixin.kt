@@ -21,11 +21,13 @@
 package com.demonwav.mcdev.nbt.lang.psi.mixins
 
 import com.demonwav.mcdev.nbt.lang.gen.psi.NbttInt
+import com.demonwav.mcdev.nbt.lang.psi.NbttArrayBody
 import com.demonwav.mcdev.nbt.lang.psi.NbttElement
 import com.demonwav.mcdev.nbt.tags.TagIntArray
 
 interface NbttIntArrayMixin : NbttElement {
 
+    fun getArrayBody(): NbttArrayBody?
     fun getIntList(): List<NbttInt>
     fun getIntArrayTag(): TagIntArray
 }
@@ -21,11 +21,13 @@
 package com.demonwav.mcdev.nbt.lang.psi.mixins
 
 import com.demonwav.mcdev.nbt.lang.gen.psi.NbttLong
+import com.demonwav.mcdev.nbt.lang.psi.NbttArrayBody
 import com.demonwav.mcdev.nbt.lang.psi.NbttElement
 import com.demonwav.mcdev.nbt.tags.TagLongArray
 
 interface NbttLongArrayMixin : NbttElement {
 
+    fun getArrayBody(): NbttArrayBody?
     fun getLongList(): List<NbttLong>
     fun getLongArrayTag(): TagLongArray
 }
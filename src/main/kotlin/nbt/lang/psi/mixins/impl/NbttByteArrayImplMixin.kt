@@ -20,14 +20,22 @@
 
 package com.demonwav.mcdev.nbt.lang.psi.mixins.impl
 
+import com.demonwav.mcdev.nbt.lang.gen.psi.NbttByte
+import com.demonwav.mcdev.nbt.lang.psi.NbttArrayBody
 import com.demonwav.mcdev.nbt.lang.psi.mixins.NbttByteArrayMixin
 import com.demonwav.mcdev.nbt.tags.TagByteArray
 import com.intellij.extapi.psi.ASTWrapperPsiElement
 import com.intellij.lang.ASTNode
+import com.intellij.psi.util.PsiTreeUtil
 
 abstract class NbttByteArrayImplMixin(node: ASTNode) : ASTWrapperPsiElement(node), NbttByteArrayMixin {
 
+    override fun getArrayBody(): NbttArrayBody? = findChildByClass(NbttArrayBody::class.java)
+
+    override fun getByteList(): List<NbttByte> =
+        PsiTreeUtil.getChildrenOfTypeAsList(getArrayBody(), NbttByte::class.java)
+
     override fun getByteArrayTag(): TagByteArray {
-        return TagByteArray(getByteList().map { it.getByteTag().value }.toByteArray())
+        return TagByteArray(getArrayBody()?.decodeBytes() ?: ByteArray(0))
     }
 }
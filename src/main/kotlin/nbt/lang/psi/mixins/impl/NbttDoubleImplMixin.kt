@@ -21,14 +21,14 @@
 package com.demonwav.mcdev.nbt.lang.psi.mixins.impl
 
 import com.demonwav.mcdev.nbt.lang.psi.mixins.NbttDoubleMixin
+import com.demonwav.mcdev.nbt.lang.psi.parseNbttDouble
 import com.demonwav.mcdev.nbt.tags.TagDouble
 import com.intellij.extapi.psi.ASTWrapperPsiElement
 import com.intellij.lang.ASTNode
-import org.apache.commons.lang3.StringUtils
 
 abstract class NbttDoubleImplMixin(node: ASTNode) : ASTWrapperPsiElement(node), NbttDoubleMixin {
 
     override fun getDoubleTag(): TagDouble {
-        return TagDouble(StringUtils.replaceChars(text.trim(), "dD", null).toDouble())
+        return TagDouble(parseNbttDouble(text))
     }
 }
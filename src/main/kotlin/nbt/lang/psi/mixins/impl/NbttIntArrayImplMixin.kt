@@ -20,14 +20,22 @@
 
 package com.demonwav.mcdev.nbt.lang.psi.mixins.impl
 
+import com.demonwav.mcdev.nbt.lang.gen.psi.NbttInt
+import com.demonwav.mcdev.nbt.lang.psi.NbttArrayBody
 import com.demonwav.mcdev.nbt.lang.psi.mixins.NbttIntArrayMixin
 import com.demonwav.mcdev.nbt.tags.TagIntArray
 import com.intellij.extapi.psi.ASTWrapperPsiElement
 import com.intellij.lang.ASTNode
+import com.intellij.psi.util.PsiTreeUtil
 
 abstract class NbttIntArrayImplMixin(node: ASTNode) : ASTWrapperPsiElement(node), NbttIntArrayMixin {
 
+    override fun getArrayBody(): NbttArrayBody? = findChildByClass(NbttArrayBody::class.java)
+
+    override fun getIntList(): List<NbttInt> =
+        PsiTreeUtil.getChildrenOfTypeAsList(getArrayBody(), NbttInt::class.java)
+
     override fun getIntArrayTag(): TagIntArray {
-        return TagIntArray(getIntList().map { it.getIntTag().value }.toIntArray())
+        return TagIntArray(getArrayBody()?.decodeInts() ?: IntArray(0))
     }
 }
@@ -20,14 +20,22 @@
 
 package com.demonwav.mcdev.nbt.lang.psi.mixins.impl
 
+import com.demonwav.mcdev.nbt.lang.gen.psi.NbttLong
+import com.demonwav.mcdev.nbt.lang.psi.NbttArrayBody
 import com.demonwav.mcdev.nbt.lang.psi.mixins.NbttLongArrayMixin
 import com.demonwav.mcdev.nbt.tags.TagLongArray
 import com.intellij.extapi.psi.ASTWrapperPsiElement
 import com.intellij.lang.ASTNode
+import com.intellij.psi.util.PsiTreeUtil
 
 abstract class NbttLongArrayImplMixin(node: ASTNode) : ASTWrapperPsiElement(node), NbttLongArrayMixin {
 
+    override fun getArrayBody(): NbttArrayBody? = findChildByClass(NbttArrayBody::class.java)
+
+    override fun getLongList(): List<NbttLong> =
+        PsiTreeUtil.getChildrenOfTypeAsList(getArrayBody(), NbttLong::class.java)
+
     override fun getLongArrayTag(): TagLongArray {
-        return TagLongArray(getLongList().map { it.getLongTag().value }.toLongArray())
+        return TagLongArray(getArrayBody()?.decodeLongs() ?: LongArray(0))
     }
 }
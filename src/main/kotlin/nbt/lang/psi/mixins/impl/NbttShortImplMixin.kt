@@ -21,14 +21,14 @@
 package com.demonwav.mcdev.nbt.lang.psi.mixins.impl
 
 import com.demonwav.mcdev.nbt.lang.psi.mixins.NbttShortMixin
+import com.demonwav.mcdev.nbt.lang.psi.parseNbttShort
 import com.demonwav.mcdev.nbt.tags.TagShort
 import com.intellij.extapi.psi.ASTWrapperPsiElement
 import com.intellij.lang.ASTNode
-import org.apache.commons.lang3.StringUtils
 
 abstract class NbttShortImplMixin(node: ASTNode) : ASTWrapperPsiElement(node), NbttShortMixin {
 
     override fun getShortTag(): TagShort {
-        return TagShort(StringUtils.replaceChars(text.trim(), "sS", null).toShort())
+        return TagShort(parseNbttShort(text))
     }
 }
@@ -22,6 +22,7 @@ package com.demonwav.mcdev.nbt.tags
 
 import java.io.DataOutputStream
 import java.io.OutputStream
+import java.nio.ByteBuffer
 import org.apache.commons.lang3.StringUtils
 
 interface NbtTag {
@@ -105,3 +106,21 @@ fun appendName(sb: StringBuilder, name: String?) {
     }
     sb.append(": ")
 }
+
+/**
+ * Writes the remaining contents of [buffer] to the given [stream], without changing the position of the buffer.
+ */
+fun writeBuffer(stream: DataOutputStream, buffer: ByteBuffer) {
+    val source = buffer.duplicate()
+    if (source.hasArray()) {
+        stream.write(source.array(), source.arrayOffset() + source.position(), source.remaining())
+        return
+    }
+
+    val chunk = ByteArray(minOf(source.remaining(), 8192))
+    while (source.hasRemaining()) {
+        val length = minOf(chunk.size, source.remaining())
+        source.get(chunk, 0, length)
+        stream.write(chunk, 0, length)
+    }
+}
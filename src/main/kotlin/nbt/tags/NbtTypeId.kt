@@ -39,6 +39,9 @@ enum class NbtTypeId(val typeIdByte: Byte, val tagName: String, val tagClass: KC
     ;
 
     companion object {
-        fun getById(id: Byte) = values().firstOrNull { it.typeIdByte == id }
+        // type ids are the ordinals
+        private val byId = values()
+
+        fun getById(id: Byte) = byId.getOrNull(id.toInt())
     }
 }
@@ -21,14 +21,39 @@
 package com.demonwav.mcdev.nbt.tags
 
 import java.io.DataOutputStream
+import java.nio.ByteBuffer
 
-class TagByteArray(override val value: ByteArray) : NbtValueTag<ByteArray>(ByteArray::class) {
-    override val payloadSize = 4 + value.size
+class TagByteArray private constructor(
+    @Volatile private var decoded: ByteArray?,
+    private val raw: ByteBuffer?,
+) : NbtValueTag<ByteArray>(ByteArray::class) {
+    constructor(value: ByteArray) : this(value, null)
+
+    /**
+     * Creates a tag backed by the raw big-endian payload in [raw], which is only decoded once [value] is accessed.
+     */
+    constructor(raw: ByteBuffer) : this(null, raw)
+
+    override val value: ByteArray
+        get() = decoded ?: decode(raw!!).also { decoded = it }
+
+    val size: Int
+        get() = decoded?.size ?: raw!!.remaining()
+
+    override val payloadSize
+        get() = 4 + size
     override val typeId = NbtTypeId.BYTE_ARRAY
 
     override fun write(stream: DataOutputStream) {
-        stream.writeInt(value.size)
-        for (byte in value) {
+        val decoded = this.decoded
+        if (decoded == null) {
+            stream.writeInt(size)
+            writeBuffer(stream, raw!!)
+            return
+        }
+
+        stream.writeInt(decoded.size)
+        for (byte in decoded) {
             stream.writeByte(byte.toInt())
         }
     }
@@ -36,7 +61,22 @@ class TagByteArray(override val value: ByteArray) : NbtValueTag<ByteArray>(ByteA
     override fun toString() = toString(StringBuilder(), 0, WriterState.COMPOUND).toString()
 
     override fun toString(sb: StringBuilder, indentLevel: Int, writerState: WriterState): StringBuilder {
-        value.joinTo(buffer = sb, separator = ", ", prefix = "bytes(", postfix = ")")
+        val decoded = this.decoded
+        if (decoded != null) {
+            decoded.joinTo(buffer = sb, separator = ", ", prefix = "bytes(", postfix = ")")
+            return sb
+        }
+
+        // print straight from the raw payload so that it doesn't have to be kept around decoded
+        val raw = this.raw!!
+        sb.append("bytes(")
+        for (i in 0 until size) {
+            if (i != 0) {
+                sb.append(", ")
+            }
+            sb.append(raw.get(i).toInt())
+        }
+        sb.append(')')
         return sb
     }
 
@@ -51,4 +91,8 @@ class TagByteArray(override val value: ByteArray) : NbtValueTag<ByteArray>(ByteA
     override fun hashCode() = this.value.contentHashCode()
 
     override fun valueCopy() = value.copyOf(value.size)
+
+    private companion object {
+        fun decode(raw: ByteBuffer) = ByteArray(raw.remaining()) { raw.get(it) }
+    }
 }
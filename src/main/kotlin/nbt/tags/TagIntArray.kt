@@ -21,14 +21,39 @@
 package com.demonwav.mcdev.nbt.tags
 
 import java.io.DataOutputStream
+import java.nio.ByteBuffer
 
-class TagIntArray(override val value: IntArray) : NbtValueTag<IntArray>(IntArray::class) {
-    override val payloadSize = 4 + value.size * 4
+class TagIntArray private constructor(
+    @Volatile private var decoded: IntArray?,
+    private val raw: ByteBuffer?,
+) : NbtValueTag<IntArray>(IntArray::class) {
+    constructor(value: IntArray) : this(value, null)
+
+    /**
+     * Creates a tag backed by the raw big-endian payload in [raw], which is only decoded once [value] is accessed.
+     */
+    constructor(raw: ByteBuffer) : this(null, raw)
+
+    override val value: IntArray
+        get() = decoded ?: decode(raw!!).also { decoded = it }
+
+    val size: Int
+        get() = decoded?.size ?: (raw!!.remaining() / 4)
+
+    override val payloadSize
+        get() = 4 + size * 4
     override val typeId = NbtTypeId.INT_ARRAY
 
     override fun write(stream: DataOutputStream) {
-        stream.writeInt(value.size)
-        for (i in value) {
+        val decoded = this.decoded
+        if (decoded == null) {
+            stream.writeInt(size)
+            writeBuffer(stream, raw!!)
+            return
+        }
+
+        stream.writeInt(decoded.size)
+        for (i in decoded) {
             stream.writeInt(i)
         }
     }
@@ -36,7 +61,22 @@ class TagIntArray(override val value: IntArray) : NbtValueTag<IntArray>(IntArray
     override fun toString() = toString(StringBuilder(), 0, WriterState.COMPOUND).toString()
 
     override fun toString(sb: StringBuilder, indentLevel: Int, writerState: WriterState): StringBuilder {
-        value.joinTo(buffer = sb, separator = ", ", prefix = "ints(", postfix = ")")
+        val decoded = this.decoded
+        if (decoded != null) {
+            decoded.joinTo(buffer = sb, separator = ", ", prefix = "ints(", postfix = ")")
+            return sb
+        }
+
+        // print straight from the raw payload so that it doesn't have to be kept around decoded
+        val raw = this.raw!!
+        sb.append("ints(")
+        for (i in 0 until size) {
+            if (i != 0) {
+                sb.append(", ")
+            }
+            sb.append(raw.getInt(i * 4))
+        }
+        sb.append(')')
         return sb
     }
 
@@ -49,4 +89,8 @@ class TagIntArray(override val value: IntArray) : NbtValueTag<IntArray>(IntArray
     override fun hashCode() = this.value.contentHashCode()
 
     override fun valueCopy() = value.copyOf(value.size)
+
+    private companion object {
+        fun decode(raw: ByteBuffer) = IntArray(raw.remaining() / 4) { raw.getInt(it * 4) }
+    }
 }
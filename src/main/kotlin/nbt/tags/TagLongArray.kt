@@ -21,14 +21,39 @@
 package com.demonwav.mcdev.nbt.tags
 
 import java.io.DataOutputStream
+import java.nio.ByteBuffer
 
-class TagLongArray(override val value: LongArray) : NbtValueTag<LongArray>(LongArray::class) {
-    override val payloadSize = 4 + value.size * 8
+class TagLongArray private constructor(
+    @Volatile private var decoded: LongArray?,
+    private val raw: ByteBuffer?,
+) : NbtValueTag<LongArray>(LongArray::class) {
+    constructor(value: LongArray) : this(value, null)
+
+    /**
+     * Creates a tag backed by the raw big-endian payload in [raw], which is only decoded once [value] is accessed.
+     */
+    constructor(raw: ByteBuffer) : this(null, raw)
+
+    override val value: LongArray
+        get() = decoded ?: decode(raw!!).also { decoded = it }
+
+    val size: Int
+        get() = decoded?.size ?: (raw!!.remaining() / 8)
+
+    override val payloadSize
+        get() = 4 + size * 8
     override val typeId = NbtTypeId.LONG_ARRAY
 
     override fun write(stream: DataOutputStream) {
-        stream.writeInt(value.size)
-        for (l in value) {
+        val decoded = this.decoded
+        if (decoded == null) {
+            stream.writeInt(size)
+            writeBuffer(stream, raw!!)
+            return
+        }
+
+        stream.writeInt(decoded.size)
+        for (l in decoded) {
             stream.writeLong(l)
         }
     }
@@ -36,7 +61,22 @@ class TagLongArray(override val value: LongArray) : NbtValueTag<LongArray>(LongA
     override fun toString() = toString(StringBuilder(), 0, WriterState.COMPOUND).toString()
 
     override fun toString(sb: StringBuilder, indentLevel: Int, writerState: WriterState): StringBuilder {
-        value.joinTo(buffer = sb, separator = ", ", prefix = "longs(", postfix = ")")
+        val decoded = this.decoded
+        if (decoded != null) {
+            decoded.joinTo(buffer = sb, separator = ", ", prefix = "longs(", postfix = ")")
+            return sb
+        }
+
+        // print straight from the raw payload so that it doesn't have to be kept around decoded
+        val raw = this.raw!!
+        sb.append("longs(")
+        for (i in 0 until size) {
+            if (i != 0) {
+                sb.append(", ")
+            }
+            sb.append(raw.getLong(i * 8))
+        }
+        sb.append(')')
         return sb
     }
 
@@ -49,4 +89,8 @@ class TagLongArray(override val value: LongArray) : NbtValueTag<LongArray>(LongA
     override fun hashCode() = this.value.contentHashCode()
 
     override fun valueCopy() = value.copyOf(value.size)
+
+    private companion object {
+        fun decode(raw: ByteBuffer) = LongArray(raw.remaining() / 8) { raw.getLong(it * 8) }
+    }
 }
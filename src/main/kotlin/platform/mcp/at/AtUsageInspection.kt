@@ -25,14 +25,22 @@ import com.demonwav.mcdev.platform.mcp.McpModuleType
 import com.demonwav.mcdev.platform.mcp.at.gen.psi.AtEntry
 import com.demonwav.mcdev.platform.mcp.at.gen.psi.AtFieldName
 import com.demonwav.mcdev.platform.mcp.at.gen.psi.AtFunction
+import com.demonwav.mcdev.platform.mcp.mappings.Mappings
+import com.demonwav.mcdev.util.cached
 import com.intellij.codeInspection.LocalInspectionTool
 import com.intellij.codeInspection.ProblemHighlightType
 import com.intellij.codeInspection.ProblemsHolder
+import com.intellij.ide.highlighter.JavaFileType
 import com.intellij.openapi.module.ModuleUtilCore
 import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiElementVisitor
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiMember
 import com.intellij.psi.search.GlobalSearchScope
 import com.intellij.psi.search.searches.ReferencesSearch
+import com.intellij.psi.util.PsiModificationTracker
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.util.containers.ContainerUtil
 
 class AtUsageInspection : LocalInspectionTool() {
 
@@ -47,27 +55,19 @@ class AtUsageInspection : LocalInspectionTool() {
                     return
                 }
 
-                val module = ModuleUtilCore.findModuleForPsiElement(element) ?: return
-                val instance = MinecraftFacet.getInstance(module) ?: return
-                val mcpModule = instance.getModuleOfType(McpModuleType) ?: return
-                val srgMap = mcpModule.mappingsManager?.mappingsNow ?: return
+                val srgMap = findMappings(element) ?: return
+                val psi = resolveEntry(element, srgMap) ?: return
 
-                val member = element.function ?: element.fieldName ?: return
-                val reference = AtMemberReference.get(element, member) ?: return
-
-                val psi = when (member) {
-                    is AtFunction ->
-                        reference.resolveMember(element.project) ?: srgMap.tryGetMappedMethod(reference)?.resolveMember(
-                            element.project,
-                        ) ?: return
-                    is AtFieldName ->
-                        reference.resolveMember(element.project)
-                            ?: srgMap.tryGetMappedField(reference)?.resolveMember(element.project) ?: return
-                    else ->
-                        return
+                if (psi in findUsedMembers(element.containingFile, srgMap)) {
+                    return
                 }
 
-                val query = ReferencesSearch.search(psi, GlobalSearchScope.projectScope(element.project))
+                // The batched search only covers Java sources, check the other languages the slow way
+                val project = element.project
+                val projectScope = GlobalSearchScope.projectScope(project)
+                val javaScope = GlobalSearchScope.getScopeRestrictedByFileTypes(projectScope, JavaFileType.INSTANCE)
+                val otherScope = projectScope.intersectWith(GlobalSearchScope.notScope(javaScope))
+                val query = ReferencesSearch.search(psi, otherScope)
                 query.findFirst()
                     ?: holder.registerProblem(
                         element,
@@ -77,4 +77,51 @@ class AtUsageInspection : LocalInspectionTool() {
             }
         }
     }
+
+    private fun findMappings(element: PsiElement): Mappings? {
+        val module = ModuleUtilCore.findModuleForPsiElement(element) ?: return null
+        val instance = MinecraftFacet.getInstance(module) ?: return null
+        val mcpModule = instance.getModuleOfType(McpModuleType) ?: return null
+        return mcpModule.mappingsManager?.mappingsNow
+    }
+
+    private fun resolveEntry(entry: AtEntry, srgMap: Mappings): PsiMember? {
+        val member = entry.function ?: entry.fieldName ?: return null
+        val reference = AtMemberReference.get(entry, member) ?: return null
+
+        return when (member) {
+            is AtFunction ->
+                reference.resolveMember(entry.project)
+                    ?: srgMap.tryGetMappedMethod(reference)?.resolveMember(entry.project)
+            is AtFieldName ->
+                reference.resolveMember(entry.project)
+                    ?: srgMap.tryGetMappedField(reference)?.resolveMember(entry.project)
+            else ->
+                null
+        }
+    }
+
+    /**
+     * Resolves every entry of the access transformer [file] and searches the project's Java sources for all of them
+     * at once, rather than running a separate reference search for each entry. Results are kept per mappings
+     * instance, so reloaded mappings are searched again even if no PSI changed.
+     */
+    private fun findUsedMembers(file: PsiFile, srgMap: Mappings): Set<PsiMember> {
+        val byMappings = file.cached(PsiModificationTracker.MODIFICATION_COUNT) {
+            ContainerUtil.createConcurrentWeakMap<Mappings, Set<PsiMember>>()
+        }
+        byMappings[srgMap]?.let { return it }
+
+        val members = PsiTreeUtil.findChildrenOfType(file, AtEntry::class.java).mapNotNull {
+            resolveEntry(it, srgMap)
+        }
+        val project = file.project
+        val scope = GlobalSearchScope.getScopeRestrictedByFileTypes(
+            GlobalSearchScope.projectScope(project),
+            JavaFileType.INSTANCE,
+        )
+        val used = MemberReferenceSearch.findReferencedMembers(project, members, scope)
+        byMappings[srgMap] = used
+        return used
+    }
 }
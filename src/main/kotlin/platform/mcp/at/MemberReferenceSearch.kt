@@ -0,0 +1,117 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.platform.mcp.at
+
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.JavaRecursiveElementWalkingVisitor
+import com.intellij.psi.PsiEnumConstant
+import com.intellij.psi.PsiJavaFile
+import com.intellij.psi.PsiManager
+import com.intellij.psi.PsiMember
+import com.intellij.psi.PsiMethod
+import com.intellij.psi.PsiNamedElement
+import com.intellij.psi.PsiNewExpression
+import com.intellij.psi.PsiReferenceExpression
+import com.intellij.psi.impl.cache.CacheManager
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.search.UsageSearchContext
+
+/**
+ * Searches Java files for references to many members at once. Candidate files are taken from the platform's word
+ * index, and each of them is resolved only once for all members.
+ */
+object MemberReferenceSearch {
+    /**
+     * Returns the subset of [members] which are referenced from the Java files in [scope].
+     */
+    fun findReferencedMembers(
+        project: Project,
+        members: Collection<PsiMember>,
+        scope: GlobalSearchScope,
+    ): Set<PsiMember> {
+        val targets = members.toHashSet()
+        val names = HashSet<String>()
+        var hasConstructors = false
+        // constructors are called by the name of their class, with new, super() from subclasses or this()
+        val words = HashSet<String>()
+        for (member in targets) {
+            if (member is PsiMethod && member.isConstructor) {
+                hasConstructors = true
+                member.containingClass?.name?.let { words += it }
+            } else {
+                (member as? PsiNamedElement)?.name?.let {
+                    names += it
+                    words += it
+                }
+            }
+        }
+
+        val cacheManager = CacheManager.getInstance(project)
+        val files = LinkedHashSet<VirtualFile>()
+        for (word in words) {
+            files += cacheManager.getVirtualFilesWithWord(word, UsageSearchContext.IN_CODE, scope, true)
+        }
+
+        val psiManager = PsiManager.getInstance(project)
+        val result = HashSet<PsiMember>()
+        for (file in files) {
+            ProgressManager.checkCanceled()
+            val psiFile = psiManager.findFile(file) as? PsiJavaFile ?: continue
+            psiFile.accept(
+                object : JavaRecursiveElementWalkingVisitor() {
+                    override fun visitReferenceExpression(expression: PsiReferenceExpression) {
+                        super.visitReferenceExpression(expression)
+                        val name = expression.referenceName
+                        if (name in names || hasConstructors && (name == "super" || name == "this")) {
+                            visitResolved(expression.resolve())
+                        }
+                    }
+
+                    override fun visitNewExpression(expression: PsiNewExpression) {
+                        super.visitNewExpression(expression)
+                        if (hasConstructors) {
+                            visitResolved(expression.resolveConstructor())
+                        }
+                    }
+
+                    override fun visitEnumConstant(enumConstant: PsiEnumConstant) {
+                        super.visitEnumConstant(enumConstant)
+                        if (hasConstructors) {
+                            visitResolved(enumConstant.resolveConstructor())
+                        }
+                    }
+
+                    private fun visitResolved(resolved: Any?) {
+                        if (resolved is PsiMember && resolved in targets) {
+                            result += resolved
+                        }
+                    }
+                },
+            )
+            if (result.size == targets.size) {
+                break
+            }
+        }
+        return result
+    }
+}
@@ -22,6 +22,7 @@ package com.demonwav.mcdev.platform.mcp.fabricloom
 
 import com.demonwav.mcdev.facet.MinecraftFacet
 import com.demonwav.mcdev.platform.fabric.FabricModuleType
+import com.demonwav.mcdev.platform.mcp.mappings.NameRemapper
 import com.intellij.openapi.module.ModuleManager
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.project.ProjectManager
@@ -31,9 +32,13 @@ import com.intellij.ui.components.JBLabel
 import com.intellij.uiDesigner.core.GridConstraints
 import com.intellij.uiDesigner.core.GridLayoutManager
 import com.intellij.unscramble.UnscrambleSupport
+import com.intellij.util.containers.ContainerUtil
 import java.awt.Dimension
+import java.io.IOException
+import java.nio.file.Files
 import java.nio.file.Path
 import java.nio.file.Paths
+import java.nio.file.attribute.BasicFileAttributes
 import javax.swing.JPanel
 import net.fabricmc.mappingio.MappedElementKind
 import net.fabricmc.mappingio.MappingReader
@@ -43,8 +48,6 @@ import org.jetbrains.plugins.gradle.util.GradleUtil
 
 class TinyUnscrambler : UnscrambleSupport<TinyUnscrambler.SettingsComponent> {
 
-    private val symbolPattern = Regex("(([\\w$]+\\.)*(class_\\d+\\$?)+)|((?:field|method)_\\d+)")
-
     override fun getPresentableName() = "Remap Tiny names"
 
     class SettingsComponent(mappings: Map<String, Path>) : JPanel(GridLayoutManager(1, 2)) {
@@ -114,75 +117,120 @@ class TinyUnscrambler : UnscrambleSupport<TinyUnscrambler.SettingsComponent> {
             ?: settings?.mappingsBoxModel?.let { mappings -> mappings.selectedItem?.let(mappings::getValue) }
             ?: return null
 
-        val interToNamed = mutableMapOf<String, String>()
-        val visitor = object : MappingVisitor {
-            var interNsIndex = -1
-            var namedNsIndex = -1
-
-            lateinit var src: String
-            var inter: String? = null
-            var named: String? = null
+        return getRemapper(mappingsFile)?.remap(text)
+    }
 
-            override fun visitNamespaces(srcNamespace: String, dstNamespaces: MutableList<String>) {
-                namedNsIndex = dstNamespaces.indexOf("named")
-                interNsIndex = dstNamespaces.indexOf("intermediary")
+    private class CachedRemapper(val lastModified: Long, val size: Long, val remapper: NameRemapper)
+
+    companion object {
+        // remapping tables are soft referenced so they can be reused for as long as memory allows
+        private val remappers = ContainerUtil.createConcurrentSoftValueMap<Path, CachedRemapper>()
+
+        /**
+         * Returns the remapper from intermediary to named names for the tiny [mappingsFile], reading the file only if
+         * it changed since it was last read.
+         */
+        fun getRemapper(mappingsFile: Path): NameRemapper? {
+            val attributes = try {
+                Files.readAttributes(mappingsFile, BasicFileAttributes::class.java)
+            } catch (e: IOException) {
+                return null
             }
+            val lastModified = attributes.lastModifiedTime().toMillis()
+            val size = attributes.size()
 
-            override fun visitContent(): Boolean {
-                return interNsIndex >= 0 && namedNsIndex >= 0
+            remappers[mappingsFile]?.let { cached ->
+                if (cached.lastModified == lastModified && cached.size == size) {
+                    return cached.remapper
+                }
             }
 
-            override fun visitClass(srcName: String): Boolean {
-                src = srcName.replace('/', '.')
-                return true
-            }
+            val interToNamed = readInterToNamed(mappingsFile)
+            val remapper = NameRemapper(interToNamed::get)
+            remappers[mappingsFile] = CachedRemapper(lastModified, size, remapper)
+            return remapper
+        }
 
-            override fun visitField(srcName: String, srcDesc: String): Boolean {
-                src = srcName
-                return true
-            }
+        private fun readInterToNamed(mappingsFile: Path): Map<String, String> {
+            val interToNamed = HashMap<String, String>()
+            val visitor = object : MappingVisitor {
+                var interNsIndex = -1
+                var namedNsIndex = -1
 
-            override fun visitMethod(srcName: String, srcDesc: String): Boolean {
-                src = srcName
-                return true
-            }
+                lateinit var src: String
+                var inter: String? = null
+                var named: String? = null
 
-            override fun visitMethodArg(argPosition: Int, lvIndex: Int, srcName: String): Boolean {
-                return false
-            }
+                override fun visitNamespaces(srcNamespace: String, dstNamespaces: MutableList<String>) {
+                    namedNsIndex = dstNamespaces.indexOf("named")
+                    interNsIndex = dstNamespaces.indexOf("intermediary")
+                }
 
-            override fun visitMethodVar(lvtRowIndex: Int, lvIndex: Int, startOpIdx: Int, srcName: String): Boolean {
-                return false
-            }
+                override fun visitContent(): Boolean {
+                    return interNsIndex >= 0 && namedNsIndex >= 0
+                }
+
+                override fun visitClass(srcName: String): Boolean {
+                    src = srcName.replace('/', '.')
+                    inter = null
+                    named = null
+                    return true
+                }
 
-            override fun visitDstName(targetKind: MappedElementKind, namespace: Int, name: String) {
-                when (namespace) {
-                    interNsIndex -> inter = name
-                    namedNsIndex -> named = name
-                    else -> return
+                override fun visitField(srcName: String, srcDesc: String): Boolean {
+                    src = srcName
+                    inter = null
+                    named = null
+                    return true
                 }
 
-                if (inter != null && named != null) {
-                    interToNamed[inter!!] = named!!
-                    if (targetKind == MappedElementKind.CLASS) {
-                        // Remap dot-separated qualified classes and simple class names too
-                        interToNamed[inter!!.replace('/', '.')] = named!!.replace('/', '.')
-                        interToNamed[inter!!.substringAfterLast('/')] = named!!.substringAfterLast('/')
+                override fun visitMethod(srcName: String, srcDesc: String): Boolean {
+                    src = srcName
+                    inter = null
+                    named = null
+                    return true
+                }
+
+                override fun visitMethodArg(argPosition: Int, lvIndex: Int, srcName: String): Boolean {
+                    return false
+                }
+
+                override fun visitMethodVar(
+                    lvtRowIndex: Int,
+                    lvIndex: Int,
+                    startOpIdx: Int,
+                    srcName: String,
+                ): Boolean {
+                    return false
+                }
+
+                override fun visitDstName(targetKind: MappedElementKind, namespace: Int, name: String) {
+                    when (namespace) {
+                        interNsIndex -> inter = name
+                        namedNsIndex -> named = name
+                        else -> return
+                    }
+
+                    if (inter != null && named != null) {
+                        interToNamed[inter!!] = named!!
+                        if (targetKind == MappedElementKind.CLASS) {
+                            // Remap dot-separated qualified classes and simple class names too
+                            interToNamed[inter!!.replace('/', '.')] = named!!.replace('/', '.')
+                            interToNamed[inter!!.substringAfterLast('/')] = named!!.substringAfterLast('/')
+                        }
                     }
                 }
-            }
 
-            override fun visitComment(targetKind: MappedElementKind, comment: String) {
-            }
+                override fun visitComment(targetKind: MappedElementKind, comment: String) {
+                }
 
-            override fun visitElementContent(targetKind: MappedElementKind?): Boolean {
-                return targetKind != MappedElementKind.METHOD
+                override fun visitElementContent(targetKind: MappedElementKind?): Boolean {
+                    return targetKind != MappedElementKind.METHOD
+                }
             }
-        }
 
-        MappingReader.read(mappingsFile, visitor)
-        return symbolPattern.replace(text) {
-            interToNamed[it.value] ?: it.value
+            MappingReader.read(mappingsFile, visitor)
+            return interToNamed
         }
     }
 }
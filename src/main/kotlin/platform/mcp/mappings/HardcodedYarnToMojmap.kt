@@ -21,33 +21,26 @@
 package com.demonwav.mcdev.platform.mcp.mappings
 
 import com.demonwav.mcdev.util.MemberReference
-import com.google.common.collect.ImmutableBiMap
 
 /**
  * A temporary solution until we get something more dynamic sorted
  */
 object HardcodedYarnToMojmap {
-    fun createMappings() = Mappings(
-        ImmutableBiMap.ofEntries(
-            "net.minecraft.item.ItemStack" mapTo "net.minecraft.world.item.ItemStack",
-            "net.minecraft.util.Formatting" mapTo "net.minecraft.ChatFormatting",
-            "net.minecraft.text.Text" mapTo "net.minecraft.network.chat.Component",
-        ),
-        ImmutableBiMap.ofEntries(),
-        ImmutableBiMap.ofEntries(
+    fun createMappings() = Mappings.Builder().apply {
+        addClass("net.minecraft.item.ItemStack", "net.minecraft.world.item.ItemStack")
+        addClass("net.minecraft.util.Formatting", "net.minecraft.ChatFormatting")
+        addClass("net.minecraft.text.Text", "net.minecraft.network.chat.Component")
+        addMethod(
             MemberReference(
                 owner = "net.minecraft.util.Text",
                 name = "stringifiedTranslatable",
                 descriptor = "(Ljava/lang/String;[Ljava/lang/Object;)Lnet/minecraft/text/MutableText;"
-            ) mapTo MemberReference(
+            ),
+            MemberReference(
                 owner = "net.minecraft.network.chat.Component",
                 name = "translatableEscape",
                 descriptor = "(Ljava/lang/String;[Ljava/lang/Object;)Lnet/minecraft/network/chat/MutableComponent;"
-            )
-        ),
-        hashMapOf(),
-        false,
-    )
-
-    private infix fun <T> T.mapTo(value: T) = java.util.AbstractMap.SimpleEntry(this, value)
+            ),
+        )
+    }.build()
 }
@@ -27,25 +27,39 @@ import com.demonwav.mcdev.util.fullQualifiedName
 import com.demonwav.mcdev.util.mapFirstNotNull
 import com.demonwav.mcdev.util.qualifiedMemberReference
 import com.demonwav.mcdev.util.simpleQualifiedMemberReference
-import com.google.common.collect.ImmutableBiMap
 import com.intellij.openapi.module.Module
 import com.intellij.psi.PsiClass
 import com.intellij.psi.PsiField
 import com.intellij.psi.PsiMethod
+import java.io.DataOutput
+import java.nio.ByteBuffer
 
-class Mappings(
-    val classMap: ImmutableBiMap<String, String>,
-    val fieldMap: ImmutableBiMap<MemberReference, MemberReference>,
-    val methodMap: ImmutableBiMap<MemberReference, MemberReference>,
-    private val intermediaryNames: HashMap<String, String>,
+/**
+ * Class, field and method mappings between a mapped (named) namespace and an intermediary namespace.
+ *
+ * Every string making up the mappings is interned into a single sorted pool, and each class and member is stored as a
+ * row of indices into that pool. Lookups in either direction binary search a sorted permutation of those rows, so a
+ * full set of MCP or Yarn mappings costs a few int arrays rather than a boxed map entry and two [MemberReference]s per
+ * member. Use [Builder] to create instances.
+ */
+class Mappings private constructor(
+    private val pool: Array<String>,
+    private val classes: PairTable,
+    private val fields: MemberTable,
+    private val methods: MemberTable,
+    private val intermediaryNames: PairTable,
     val containsFieldDescriptors: Boolean,
 ) {
-    fun getIntermediaryClass(fullQualifiedName: String) = classMap[fullQualifiedName]
+    val classCount get() = classes.size
+    val fieldCount get() = fields.size
+    val methodCount get() = methods.size
+
+    fun getIntermediaryClass(fullQualifiedName: String) = string(classes.findRight(id(fullQualifiedName)))
     fun getIntermediaryClass(psiClass: PsiClass): String? {
         return getIntermediaryClass(psiClass.fullQualifiedName ?: return null)
     }
 
-    fun getIntermediaryField(reference: MemberReference) = fieldMap[reference]
+    fun getIntermediaryField(reference: MemberReference) = fields.findIntermediary(reference)
     fun getIntermediaryField(field: PsiField) = getIntermediaryField(
         if (containsFieldDescriptors) {
             field.qualifiedMemberReference
@@ -54,21 +68,442 @@ class Mappings(
         }
     )
 
-    fun getIntermediaryMethod(reference: MemberReference) = methodMap[reference]
+    fun getIntermediaryMethod(reference: MemberReference) = methods.findIntermediary(reference)
     fun getIntermediaryMethod(method: PsiMethod) = getIntermediaryMethod(method.qualifiedMemberReference)
 
-    fun tryGetMappedClass(fullQualifiedName: String) = classMap.inverse()[fullQualifiedName]
+    fun tryGetMappedClass(fullQualifiedName: String) = string(classes.findLeft(id(fullQualifiedName)))
     fun getMappedClass(fullQualifiedName: String) = tryGetMappedClass(fullQualifiedName) ?: fullQualifiedName
 
-    fun tryGetMappedField(reference: MemberReference) = fieldMap.inverse()[reference]
+    fun tryGetMappedField(reference: MemberReference) = fields.findMapped(reference)
     fun getMappedField(reference: MemberReference) = tryGetMappedField(reference) ?: reference
     fun tryGetMappedField(field: PsiField) = tryGetMappedField(field.qualifiedMemberReference)
 
-    fun tryGetMappedMethod(reference: MemberReference) = methodMap.inverse()[reference]
+    fun tryGetMappedMethod(reference: MemberReference) = methods.findMapped(reference)
     fun getMappedMethod(reference: MemberReference) = tryGetMappedMethod(reference) ?: reference
     fun tryGetMappedMethod(method: PsiMethod) = tryGetMappedMethod(method.qualifiedMemberReference)
 
-    fun mapIntermediaryToMapped(name: String) = intermediaryNames[name]
+    fun mapIntermediaryToMapped(name: String) = string(intermediaryNames.findLeft(id(name)))
+
+    /**
+     * All field mappings as pairs of mapped to intermediary references. The references are created on the fly, prefer
+     * the lookup functions when only a few members are needed.
+     */
+    val fieldMappings: Sequence<Pair<MemberReference, MemberReference>>
+        get() = fields.entries()
+
+    /**
+     * All method mappings as pairs of mapped to intermediary references, see [fieldMappings].
+     */
+    val methodMappings: Sequence<Pair<MemberReference, MemberReference>>
+        get() = methods.entries()
+
+    /**
+     * The distinct intermediary names of all fields, in sorted order.
+     */
+    val intermediaryFieldNames: Sequence<String>
+        get() = fields.intermediaryNames().map { pool[it] }
+
+    /**
+     * The distinct intermediary names of all methods, in sorted order.
+     */
+    val intermediaryMethodNames: Sequence<String>
+        get() = methods.intermediaryNames().map { pool[it] }
+
+    /**
+     * Returns the field mappings whose intermediary name is [name], as pairs of mapped to intermediary references.
+     */
+    fun findFieldsByIntermediaryName(name: String) = fields.findByIntermediaryName(name)
+
+    /**
+     * Returns the method mappings whose intermediary name is [name], see [findFieldsByIntermediaryName].
+     */
+    fun findMethodsByIntermediaryName(name: String) = methods.findByIntermediaryName(name)
+
+    private fun id(string: String?): Int {
+        if (string == null) {
+            return NO_STRING
+        }
+        val index = pool.binarySearch(string)
+        return if (index < 0) MISSING_STRING else index
+    }
+
+    private fun string(id: Int) = if (id < 0) null else pool[id]
+
+    /**
+     * Writes the string pool and tables of these mappings in the format read by [read].
+     */
+    internal fun write(output: DataOutput) {
+        output.writeBoolean(containsFieldDescriptors)
+        output.writeInt(pool.size)
+        for (string in pool) {
+            val bytes = string.toByteArray(Charsets.UTF_8)
+            output.writeInt(bytes.size)
+            output.write(bytes)
+        }
+        for (rows in arrayOf(classes.rows, fields.rows, methods.rows, intermediaryNames.rows)) {
+            output.writeInt(rows.size)
+            for (id in rows) {
+                output.writeInt(id)
+            }
+        }
+    }
+
+    private fun MemberTable.findIntermediary(reference: MemberReference): MemberReference? {
+        val row = findRow(reference, mapped = true)
+        return if (row < 0) null else reference(row, mapped = false)
+    }
+
+    private fun MemberTable.findMapped(reference: MemberReference): MemberReference? {
+        val row = findRow(reference, mapped = false)
+        return if (row < 0) null else reference(row, mapped = true)
+    }
+
+    private fun MemberTable.findRow(reference: MemberReference, mapped: Boolean): Int {
+        // wildcard references are never stored, so they can't match anything
+        if (reference.matchAllNames || reference.matchAllDescs) {
+            return -1
+        }
+        val owner = id(reference.owner)
+        val name = id(reference.name)
+        val desc = id(reference.descriptor)
+        if (owner == MISSING_STRING || name == MISSING_STRING || desc == MISSING_STRING) {
+            return -1
+        }
+        return find(mapped, owner, name, desc)
+    }
+
+    private fun MemberTable.reference(row: Int, mapped: Boolean): MemberReference {
+        val start = row * 6 + if (mapped) 0 else 3
+        return MemberReference(pool[rows[start + 1]], string(rows[start + 2]), string(rows[start]))
+    }
+
+    private fun MemberTable.entries(): Sequence<Pair<MemberReference, MemberReference>> {
+        return (0 until size).asSequence().map { reference(it, mapped = true) to reference(it, mapped = false) }
+    }
+
+    private fun MemberTable.findByIntermediaryName(name: String): List<Pair<MemberReference, MemberReference>> {
+        val id = id(name)
+        if (id < 0) {
+            return emptyList()
+        }
+        return rowsWithIntermediaryName(id).map { reference(it, mapped = true) to reference(it, mapped = false) }
+    }
+
+    /**
+     * Collects mappings, interning their strings as they are added. Not thread safe.
+     */
+    class Builder(private val containsFieldDescriptors: Boolean = false) {
+        private val stringIds = HashMap<String, Int>()
+        private val strings = ArrayList<String>()
+
+        private val classes = IntArrayBuilder()
+        private val fields = IntArrayBuilder()
+        private val methods = IntArrayBuilder()
+        private val intermediaryNames = IntArrayBuilder()
+
+        /**
+         * Adds a class mapping. Both names are fully qualified, with dots separating packages.
+         */
+        fun addClass(mapped: String, intermediary: String) {
+            classes.add(intern(mapped))
+            classes.add(intern(intermediary))
+        }
+
+        fun addField(
+            mappedOwner: String?,
+            mappedName: String,
+            mappedDesc: String?,
+            intermediaryOwner: String?,
+            intermediaryName: String,
+            intermediaryDesc: String?,
+        ) {
+            addMember(
+                fields,
+                mappedOwner,
+                mappedName,
+                mappedDesc,
+                intermediaryOwner,
+                intermediaryName,
+                intermediaryDesc,
+            )
+        }
+
+        fun addField(mapped: MemberReference, intermediary: MemberReference) {
+            addMember(fields, mapped, intermediary)
+        }
+
+        fun addMethod(
+            mappedOwner: String?,
+            mappedName: String,
+            mappedDesc: String?,
+            intermediaryOwner: String?,
+            intermediaryName: String,
+            intermediaryDesc: String?,
+        ) {
+            addMember(
+                methods,
+                mappedOwner,
+                mappedName,
+                mappedDesc,
+                intermediaryOwner,
+                intermediaryName,
+                intermediaryDesc,
+            )
+        }
+
+        fun addMethod(mapped: MemberReference, intermediary: MemberReference) {
+            addMember(methods, mapped, intermediary)
+        }
+
+        /**
+         * Makes [Mappings.mapIntermediaryToMapped] resolve the simple member name [intermediary] to [mapped].
+         */
+        fun addIntermediaryName(intermediary: String, mapped: String) {
+            intermediaryNames.add(intern(mapped))
+            intermediaryNames.add(intern(intermediary))
+        }
+
+        private fun addMember(table: IntArrayBuilder, mapped: MemberReference, intermediary: MemberReference) {
+            addMember(
+                table,
+                mapped.owner,
+                mapped.name,
+                mapped.descriptor,
+                intermediary.owner,
+                intermediary.name,
+                intermediary.descriptor,
+            )
+        }
+
+        private fun addMember(
+            table: IntArrayBuilder,
+            mappedOwner: String?,
+            mappedName: String,
+            mappedDesc: String?,
+            intermediaryOwner: String?,
+            intermediaryName: String,
+            intermediaryDesc: String?,
+        ) {
+            table.add(intern(mappedOwner))
+            table.add(intern(mappedName))
+            table.add(intern(mappedDesc))
+            table.add(intern(intermediaryOwner))
+            table.add(intern(intermediaryName))
+            table.add(intern(intermediaryDesc))
+        }
+
+        private fun intern(string: String?): Int {
+            if (string == null) {
+                return NO_STRING
+            }
+            return stringIds.getOrPut(string) {
+                strings += string
+                strings.size - 1
+            }
+        }
+
+        fun build(): Mappings {
+            // sort the pool so lookups can binary search it, then renumber all rows to the sorted ids
+            val order = sortedIndices(strings.size) { a, b -> strings[a].compareTo(strings[b]) }
+            val newIds = IntArray(order.size)
+            for ((newId, oldId) in order.withIndex()) {
+                newIds[oldId] = newId
+            }
+            val pool = Array(order.size) { strings[order[it]] }
+
+            return Mappings(
+                pool,
+                PairTable(classes.toArray(newIds)),
+                MemberTable(fields.toArray(newIds)),
+                MemberTable(methods.toArray(newIds)),
+                PairTable(intermediaryNames.toArray(newIds)),
+                containsFieldDescriptors,
+            )
+        }
+    }
+
+    /**
+     * Rows of two pool ids, `left` being the mapped side and `right` the intermediary side.
+     */
+    private class PairTable(val rows: IntArray) {
+        val size = rows.size / 2
+
+        private val byLeft = sortedIndices(size) { a, b -> rows[a * 2].compareTo(rows[b * 2]) }
+        private val byRight = sortedIndices(size) { a, b -> rows[a * 2 + 1].compareTo(rows[b * 2 + 1]) }
+
+        fun findRight(left: Int): Int {
+            if (left < 0) {
+                return -1
+            }
+            val row = binarySearch(byLeft) { rows[it * 2].compareTo(left) }
+            return if (row < 0) -1 else rows[row * 2 + 1]
+        }
+
+        fun findLeft(right: Int): Int {
+            if (right < 0) {
+                return -1
+            }
+            val row = binarySearch(byRight) { rows[it * 2 + 1].compareTo(right) }
+            return if (row < 0) -1 else rows[row * 2]
+        }
+    }
+
+    /**
+     * Rows of six pool ids: mapped owner, name and descriptor followed by intermediary owner, name and descriptor.
+     * Owners and descriptors may be [NO_STRING].
+     */
+    private class MemberTable(val rows: IntArray) {
+        val size = rows.size / 6
+
+        private val byMapped =
+            sortedIndices(size) { a, b -> compare(a, 0, rows[b * 6], rows[b * 6 + 1], rows[b * 6 + 2]) }
+        private val byIntermediary =
+            sortedIndices(size) { a, b -> compare(a, 3, rows[b * 6 + 3], rows[b * 6 + 4], rows[b * 6 + 5]) }
+
+        fun find(mapped: Boolean, owner: Int, name: Int, desc: Int): Int {
+            return if (mapped) {
+                binarySearch(byMapped) { compare(it, 0, owner, name, desc) }
+            } else {
+                binarySearch(byIntermediary) { compare(it, 3, owner, name, desc) }
+            }
+        }
+
+        /**
+         * Returns the distinct pool ids of the intermediary names, in order. As the pool is sorted, so are the names.
+         */
+        fun intermediaryNames(): Sequence<Int> = sequence {
+            var last = NO_STRING
+            for (row in byIntermediary) {
+                val name = rows[row * 6 + 4]
+                if (name != last) {
+                    yield(name)
+                    last = name
+                }
+            }
+        }
+
+        /**
+         * Returns the rows whose intermediary name has the pool id [name].
+         */
+        fun rowsWithIntermediaryName(name: Int): List<Int> {
+            val from = intermediaryNameLowerBound(name)
+            val to = intermediaryNameLowerBound(name + 1)
+            return byIntermediary.asList().subList(from, to)
+        }
+
+        private fun intermediaryNameLowerBound(name: Int): Int {
+            var low = 0
+            var high = byIntermediary.size
+            while (low < high) {
+                val mid = (low + high) ushr 1
+                if (rows[byIntermediary[mid] * 6 + 4] < name) {
+                    low = mid + 1
+                } else {
+                    high = mid
+                }
+            }
+            return low
+        }
+
+        private fun compare(row: Int, base: Int, owner: Int, name: Int, desc: Int): Int {
+            val start = row * 6 + base
+            var result = rows[start + 1].compareTo(name)
+            if (result == 0) {
+                result = rows[start].compareTo(owner)
+            }
+            if (result == 0) {
+                result = rows[start + 2].compareTo(desc)
+            }
+            return result
+        }
+    }
+
+    private class IntArrayBuilder {
+        private var array = IntArray(64)
+        private var size = 0
+
+        fun add(value: Int) {
+            if (size == array.size) {
+                array = array.copyOf(size * 2)
+            }
+            array[size++] = value
+        }
+
+        fun toArray(newIds: IntArray) = IntArray(size) { array[it].let { id -> if (id < 0) id else newIds[id] } }
+    }
+
+    companion object {
+        /**
+         * Pool id of a `null` owner or descriptor.
+         */
+        private const val NO_STRING = -1
+
+        /**
+         * Id of a string that isn't in the pool, used by lookups so they don't match [NO_STRING] rows.
+         */
+        private const val MISSING_STRING = -2
+
+        /**
+         * Reads mappings written by [write] from the current position of [buffer].
+         */
+        internal fun read(buffer: ByteBuffer): Mappings {
+            val containsFieldDescriptors = buffer.get() != 0.toByte()
+            val poolSize = buffer.getInt()
+            var bytes = ByteArray(256)
+            val pool = Array(poolSize) {
+                val length = buffer.getInt()
+                if (length > bytes.size) {
+                    bytes = ByteArray(length)
+                }
+                buffer.get(bytes, 0, length)
+                String(bytes, 0, length, Charsets.UTF_8)
+            }
+
+            fun readRows(): IntArray {
+                val rows = IntArray(buffer.getInt())
+                buffer.asIntBuffer().get(rows)
+                buffer.position(buffer.position() + rows.size * Int.SIZE_BYTES)
+                for (id in rows) {
+                    if (id >= poolSize || id < NO_STRING) {
+                        throw IllegalArgumentException("String id $id out of bounds")
+                    }
+                }
+                return rows
+            }
+
+            return Mappings(
+                pool,
+                PairTable(readRows()),
+                MemberTable(readRows()),
+                MemberTable(readRows()),
+                PairTable(readRows()),
+                containsFieldDescriptors,
+            )
+        }
+
+        private inline fun sortedIndices(size: Int, crossinline comparator: (Int, Int) -> Int): IntArray {
+            return (0 until size).sortedWith { a, b -> comparator(a, b) }.toIntArray()
+        }
+
+        /**
+         * Binary searches [sorted] row indices, returning the matching row or `-1`.
+         */
+        private inline fun binarySearch(sorted: IntArray, compareToKey: (Int) -> Int): Int {
+            var low = 0
+            var high = sorted.size - 1
+            while (low <= high) {
+                val mid = (low + high) ushr 1
+                val row = sorted[mid]
+                val result = compareToKey(row)
+                when {
+                    result < 0 -> low = mid + 1
+                    result > 0 -> high = mid - 1
+                    else -> return row
+                }
+            }
+            return -1
+        }
+    }
 }
 
 private val Module.namedToMojang: Mappings? get() {
@@ -0,0 +1,226 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.platform.mcp.mappings
+
+import com.demonwav.mcdev.platform.mcp.srg.SrgType
+import com.demonwav.mcdev.update.PluginUtil
+import com.intellij.openapi.application.PathManager
+import com.intellij.openapi.diagnostic.logger
+import com.intellij.openapi.util.io.BufferExposingByteArrayOutputStream
+import java.io.ByteArrayInputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.IOException
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+import java.nio.file.StandardOpenOption
+import java.util.zip.CRC32
+
+/**
+ * Keeps binary snapshots of parsed [Mappings] in the system directory, so reopening a project doesn't need to parse
+ * the text mappings again.
+ *
+ * A snapshot is keyed by the path, size and modification time of the mappings file it was parsed from, and by the
+ * parser variant and plugin version that parsed it, so a different parser or a parser fix never reuses an old
+ * snapshot. It also carries a format version and a checksum of its contents. Snapshots that don't match are ignored
+ * and replaced on the next save.
+ */
+object MappingsCache {
+    private val LOGGER = logger<MappingsCache>()
+
+    private const val MAGIC = 0x4D43444D // MCDM
+    private const val VERSION = 2
+    private const val MAX_HEADER_LENGTH = 64 * 1024
+
+    private val cacheDir: Path
+        get() = PathManager.getSystemDir().resolve("mcdev").resolve("mappings")
+
+    /**
+     * Returns the mappings snapshotted for [source], or `null` if there is no up-to-date snapshot.
+     */
+    fun load(source: Path, srgType: SrgType): Mappings? {
+        val snapshot = snapshotFile(source, srgType)
+        if (!Files.isRegularFile(snapshot)) {
+            return null
+        }
+
+        return try {
+            val key = SourceKey.of(source, srgType)
+            val header = readHeader(snapshot)
+            if (header == null || header.key != key) {
+                return null
+            }
+
+            FileChannel.open(snapshot, StandardOpenOption.READ).use { channel ->
+                val payload = channel.map(FileChannel.MapMode.READ_ONLY, header.payloadOffset, header.payloadLength)
+                val checksum = CRC32()
+                checksum.update(payload.duplicate())
+                if (checksum.value != header.checksum) {
+                    LOGGER.info("Ignoring corrupt mappings snapshot $snapshot")
+                    return null
+                }
+                Mappings.read(payload)
+            }
+        } catch (e: IOException) {
+            LOGGER.info("Failed to read mappings snapshot $snapshot", e)
+            null
+        } catch (e: RuntimeException) {
+            // buffer underflows and bad string ids from a snapshot that passed its checksum but is still unreadable
+            LOGGER.info("Failed to read mappings snapshot $snapshot", e)
+            null
+        }
+    }
+
+    /**
+     * Snapshots [mappings] parsed from [source]. Failures are logged and otherwise ignored.
+     */
+    fun save(source: Path, srgType: SrgType, mappings: Mappings) {
+        val snapshot = snapshotFile(source, srgType)
+        var temp: Path? = null
+        try {
+            val key = SourceKey.of(source, srgType)
+
+            val payload = BufferExposingByteArrayOutputStream()
+            DataOutputStream(payload).use { mappings.write(it) }
+            val checksum = CRC32()
+            checksum.update(payload.internalBuffer, 0, payload.size())
+
+            val header = BufferExposingByteArrayOutputStream()
+            DataOutputStream(header).use { output ->
+                output.writeInt(MAGIC)
+                output.writeInt(VERSION)
+                output.writeUTF(key.path)
+                output.writeUTF(key.srgType)
+                output.writeUTF(key.parser)
+                output.writeUTF(key.pluginVersion)
+                output.writeLong(key.size)
+                output.writeLong(key.modified)
+                output.writeLong(payload.size().toLong())
+                output.writeLong(checksum.value)
+            }
+
+            Files.createDirectories(snapshot.parent)
+            temp = Files.createTempFile(snapshot.parent, snapshot.fileName.toString(), ".tmp")
+            DataOutputStream(Files.newOutputStream(temp).buffered()).use { output ->
+                output.writeInt(header.size())
+                output.write(header.internalBuffer, 0, header.size())
+                output.write(payload.internalBuffer, 0, payload.size())
+            }
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+            deleteOtherSnapshots(source, srgType, snapshot)
+        } catch (e: IOException) {
+            LOGGER.info("Failed to write mappings snapshot $snapshot", e)
+            // the snapshot is only a cache, failing to clean up must not fail saving the parsed mappings
+            try {
+                temp?.let { Files.deleteIfExists(it) }
+            } catch (cleanupError: IOException) {
+                LOGGER.info("Failed to delete temporary mappings snapshot $temp", cleanupError)
+            }
+        }
+    }
+
+    /**
+     * Reads the header with regular I/O, so that a stale snapshot is never mapped and can always be replaced.
+     */
+    private fun readHeader(snapshot: Path): Header? {
+        DataInputStream(Files.newInputStream(snapshot).buffered()).use { input ->
+            val headerLength = input.readInt()
+            if (headerLength <= 0 || headerLength > MAX_HEADER_LENGTH) {
+                return null
+            }
+            val bytes = ByteArray(headerLength)
+            input.readFully(bytes)
+
+            val header = DataInputStream(ByteArrayInputStream(bytes))
+            if (header.readInt() != MAGIC || header.readInt() != VERSION) {
+                return null
+            }
+            val key = SourceKey(
+                header.readUTF(),
+                header.readUTF(),
+                header.readUTF(),
+                header.readUTF(),
+                header.readLong(),
+                header.readLong(),
+            )
+            return Header(key, Int.SIZE_BYTES + headerLength.toLong(), header.readLong(), header.readLong())
+        }
+    }
+
+    /**
+     * Snapshots written by other parser variants or plugin versions are never read again, remove them once the current
+     * one has been written.
+     */
+    private fun deleteOtherSnapshots(source: Path, srgType: SrgType, current: Path) {
+        val prefix = snapshotPrefix(source, srgType)
+        try {
+            Files.newDirectoryStream(cacheDir, "$prefix*").use { stream ->
+                for (file in stream) {
+                    if (file != current && !file.fileName.toString().endsWith(".tmp")) {
+                        Files.deleteIfExists(file)
+                    }
+                }
+            }
+        } catch (e: IOException) {
+            LOGGER.info("Failed to delete old mappings snapshots of $source", e)
+        }
+    }
+
+    private fun snapshotFile(source: Path, srgType: SrgType): Path {
+        val variant = "${srgType.srgParser.variant}-${PluginUtil.pluginVersion}"
+        val variantHash = Integer.toHexString(variant.hashCode())
+        return cacheDir.resolve(snapshotPrefix(source, srgType) + variantHash)
+    }
+
+    private fun snapshotPrefix(source: Path, srgType: SrgType): String {
+        val path = source.toAbsolutePath().normalize()
+        val name = path.fileName?.toString()?.replace(Regex("[^A-Za-z0-9._-]"), "_") ?: "mappings"
+        return "$name-${srgType.name.lowercase()}-${Integer.toHexString(path.toString().hashCode())}-"
+    }
+
+    private data class SourceKey(
+        val path: String,
+        val srgType: String,
+        val parser: String,
+        val pluginVersion: String,
+        val size: Long,
+        val modified: Long,
+    ) {
+        companion object {
+            fun of(source: Path, srgType: SrgType): SourceKey {
+                val path = source.toAbsolutePath().normalize()
+                val modified = Files.getLastModifiedTime(path).toMillis()
+                return SourceKey(
+                    path.toString(),
+                    srgType.name,
+                    srgType.srgParser.variant,
+                    PluginUtil.pluginVersion,
+                    Files.size(path),
+                    modified,
+                )
+            }
+        }
+    }
+
+    private class Header(val key: SourceKey, val payloadOffset: Long, val payloadLength: Long, val checksum: Long)
+}
@@ -87,8 +87,9 @@ abstract class MappingsManager {
                     rejectedPromise("No mapping data available at " + path.absolutePathString())
                 } else {
                     runAsync {
-                        // Load SRG map from files
-                        srgType.srgParser.parseSrg(Paths.get(file))
+                        // Load SRG map from a snapshot of a previous parse, or from files
+                        MappingsCache.load(path, srgType)
+                            ?: srgType.srgParser.parseSrg(path).also { MappingsCache.save(path, srgType, it) }
                     }
                 }
             } else {
@@ -0,0 +1,113 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.platform.mcp.mappings
+
+/**
+ * Remaps obfuscated or intermediary names in free text, such as stack traces, in a single pass.
+ *
+ * The text is split into tokens of Java identifiers separated by `.`, `/` or `$`. For each token the longest run of
+ * segments known to [lookup] is replaced, so qualified and nested class names are matched as a whole before their
+ * segments are tried on their own, and synthetic names such as `lambda$method_1234$0` still have their intermediary
+ * part remapped. Only runs ending in a segment containing a digit are looked up, as all intermediary names do, which
+ * keeps ordinary package and class names from being looked up at all.
+ */
+class NameRemapper(private val lookup: (String) -> String?) {
+
+    fun remap(text: String): String {
+        val result = StringBuilder(text.length)
+        // start and end offsets of the segments of the current token
+        val starts = ArrayList<Int>()
+        val ends = ArrayList<Int>()
+
+        var i = 0
+        while (i < text.length) {
+            if (!isNamePart(text[i])) {
+                result.append(text[i])
+                i++
+                continue
+            }
+
+            starts.clear()
+            ends.clear()
+            var end = i
+            while (true) {
+                val start = end
+                while (end < text.length && isNamePart(text[end])) {
+                    end++
+                }
+                starts += start
+                ends += end
+                if (end + 1 < text.length && isSeparator(text[end]) && isNamePart(text[end + 1])) {
+                    end++
+                } else {
+                    break
+                }
+            }
+
+            remapToken(text, starts, ends, result)
+            i = end
+        }
+
+        return result.toString()
+    }
+
+    private fun remapToken(text: String, starts: List<Int>, ends: List<Int>, result: StringBuilder) {
+        var first = 0
+        while (first < starts.size) {
+            var mapped: String? = null
+            var last = starts.size - 1
+            while (last >= first) {
+                if (containsDigit(text, starts[last], ends[last])) {
+                    mapped = lookup(text.substring(starts[first], ends[last]))
+                    if (mapped != null) {
+                        break
+                    }
+                }
+                last--
+            }
+
+            if (mapped != null) {
+                result.append(mapped)
+            } else {
+                last = first
+                result.append(text, starts[first], ends[first])
+            }
+            if (last + 1 < starts.size) {
+                // keep the separator
+                result.append(text[ends[last]])
+            }
+            first = last + 1
+        }
+    }
+
+    private fun isNamePart(c: Char) = c != '$' && Character.isJavaIdentifierPart(c)
+
+    private fun isSeparator(c: Char) = c == '.' || c == '/' || c == '$'
+
+    private fun containsDigit(text: String, start: Int, end: Int): Boolean {
+        for (i in start until end) {
+            if (text[i] in '0'..'9') {
+                return true
+            }
+        }
+        return false
+    }
+}
@@ -23,81 +23,74 @@ package com.demonwav.mcdev.platform.mcp.navigation
 import com.demonwav.mcdev.facet.MinecraftFacet
 import com.demonwav.mcdev.platform.mcp.McpModuleType
 import com.demonwav.mcdev.platform.mcp.mappings.Mappings
-import com.demonwav.mcdev.util.MemberReference
-import com.intellij.navigation.ChooseByNameContributor
+import com.intellij.navigation.ChooseByNameContributorEx
 import com.intellij.navigation.NavigationItem
 import com.intellij.openapi.module.Module
 import com.intellij.openapi.module.ModuleManager
 import com.intellij.openapi.project.Project
+import com.intellij.psi.PsiMember
 import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.util.Processor
+import com.intellij.util.indexing.FindSymbolParameters
+import com.intellij.util.indexing.IdFilter
 
-class SrgMemberChooseByNameContributor : ChooseByNameContributor {
-
-    // Cached between uses
-    var srgMap: Mappings? = null
-    var module: Module? = null
-
-    override fun getNames(project: Project, includeNonProjectItems: Boolean): Array<String> {
-        if (!includeNonProjectItems) {
-            return emptyArray()
-        }
-
-        val names = mutableSetOf<String>()
+/**
+ * Allows navigating to Minecraft members by their SRG names, in every module with loaded MCP mappings.
+ */
+class SrgMemberChooseByNameContributor : ChooseByNameContributorEx {
 
-        val modules = ModuleManager.getInstance(project).modules
-        for (module in modules) {
-            val mcpModule = MinecraftFacet.getInstance(module, McpModuleType) ?: continue
-            srgMap = mcpModule.mappingsManager?.mappingsNow ?: continue
-            this.module = module
-            break // for speed's sake, only use the first one found
+    override fun processNames(processor: Processor<in String>, scope: GlobalSearchScope, filter: IdFilter?) {
+        val project = scope.project ?: return
+        if (!scope.isSearchInLibraries) {
+            return
         }
 
-        srgMap?.apply {
-            fieldMap.values.mapTo(names) { it.name }
-            methodMap.values.mapTo(names) { it.name + it.descriptor }
+        for (mappings in findMappings(project).map { it.second }.distinct()) {
+            for (name in mappings.intermediaryFieldNames) {
+                if (!processor.process(name)) {
+                    return
+                }
+            }
+            for (name in mappings.intermediaryMethodNames) {
+                if (!processor.process(name)) {
+                    return
+                }
+            }
         }
-
-        return names.toTypedArray()
     }
 
-    override fun getItemsByName(
+    override fun processElementsWithName(
         name: String,
-        pattern: String,
-        project: Project,
-        includeNonProjectItems: Boolean,
-    ): Array<NavigationItem> {
-        if (!includeNonProjectItems || srgMap == null || module == null) {
-            return emptyArray()
+        processor: Processor<in NavigationItem>,
+        parameters: FindSymbolParameters,
+    ) {
+        if (!parameters.isSearchInLibraries) {
+            return
         }
 
-        var memberRef: MemberReference? = null
-        if (name.startsWith("field")) {
-            for ((mcp, srg) in srgMap!!.fieldMap) {
-                if (name == srg.name) {
-                    memberRef = mcp
-                    break
-                }
+        val project = parameters.project
+        val found = HashSet<PsiMember>()
+        for ((module, mappings) in findMappings(project)) {
+            val members = mappings.findFieldsByIntermediaryName(name) + mappings.findMethodsByIntermediaryName(name)
+            if (members.isEmpty()) {
+                continue
             }
-        } else if (name.startsWith("func")) {
-            for ((mcp, srg) in srgMap!!.methodMap) {
-                if (name == srg.name + srg.descriptor) {
-                    memberRef = mcp
-                    break
+
+            val scope = GlobalSearchScope.moduleWithDependenciesAndLibrariesScope(module)
+            for ((mapped, _) in members) {
+                val member = mapped.resolveMember(project, scope) ?: continue
+                if (found.add(member) && !processor.process(member)) {
+                    return
                 }
             }
         }
+    }
 
-        try {
-            memberRef?.let {
-                val member =
-                    it.resolveMember(project, GlobalSearchScope.moduleWithDependenciesAndLibrariesScope(module!!))
-                        ?: return emptyArray()
-                return arrayOf(member)
-            }
-            return emptyArray()
-        } finally {
-            srgMap = null // reset for next run
-            module = null
+    private fun findMappings(project: Project): List<Pair<Module, Mappings>> {
+        return ModuleManager.getInstance(project).modules.mapNotNull { module ->
+            val mcpModule = MinecraftFacet.getInstance(module, McpModuleType) ?: return@mapNotNull null
+            val mappings = mcpModule.mappingsManager?.mappingsNow ?: return@mapNotNull null
+            module to mappings
         }
     }
 }
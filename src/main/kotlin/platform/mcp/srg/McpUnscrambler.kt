@@ -20,19 +20,63 @@
 
 package com.demonwav.mcdev.platform.mcp.srg
 
+import com.demonwav.mcdev.facet.MinecraftFacet
+import com.demonwav.mcdev.platform.mcp.McpModuleType
+import com.demonwav.mcdev.platform.mcp.mappings.Mappings
 import com.demonwav.mcdev.platform.mcp.mappings.MappingsManager
+import com.demonwav.mcdev.platform.mcp.mappings.NameRemapper
+import com.demonwav.mcdev.util.mapFirstNotNull
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.module.ModuleManager
+import com.intellij.openapi.progress.ProgressManager
 import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.ThrowableComputable
 import com.intellij.unscramble.UnscrambleSupport
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
 import javax.swing.JComponent
 
 class McpUnscrambler : UnscrambleSupport<JComponent> {
 
-    private val srgPattern = Regex("(?:field|func)_\\d+_[a-zA-Z]+_?")
-
     override fun getPresentableName() = "Remap SRG names"
 
     override fun unscramble(project: Project, text: String, logName: String, settings: JComponent?): String? {
-        val srgMap = MappingsManager.findAnyInstance(project)?.mappingsNow ?: return null
-        return srgPattern.replace(text) { srgMap.mapIntermediaryToMapped(it.value) ?: it.value }
+        val srgMap = findMappings(project) ?: return null
+        return NameRemapper(srgMap::mapIntermediaryToMapped).remap(text)
+    }
+
+    private fun findMappings(project: Project): Mappings? {
+        val managers = ModuleManager.getInstance(project).modules.mapNotNull {
+            MinecraftFacet.getInstance(it, McpModuleType)?.mappingsManager
+        }
+        managers.mapFirstNotNull { it.mappingsNow }?.let { return it }
+
+        // Nothing has been loaded yet, wait for the first module's mappings rather than giving up
+        val manager = managers.firstOrNull() ?: return null
+        manager.parse()
+        return if (ApplicationManager.getApplication().isDispatchThread) {
+            ProgressManager.getInstance().runProcessWithProgressSynchronously(
+                ThrowableComputable<Mappings?, Exception> { awaitMappings(manager) },
+                "Loading Mappings",
+                true,
+                project,
+            )
+        } else {
+            awaitMappings(manager)
+        }
+    }
+
+    private fun awaitMappings(manager: MappingsManager): Mappings? {
+        while (true) {
+            ProgressManager.checkCanceled()
+            try {
+                return manager.mappings.blockingGet(100, TimeUnit.MILLISECONDS)
+            } catch (e: TimeoutException) {
+                // check for cancellation and keep waiting
+            } catch (e: ExecutionException) {
+                return null
+            }
+        }
     }
 }
@@ -29,7 +29,16 @@ object SrgMemberReference {
     }
 
     fun parse(reference: String, descriptor: String? = null): MemberReference {
-        val pos = reference.lastIndexOf('/')
-        return MemberReference(reference.substring(pos + 1), descriptor, reference.substring(0, pos).replace('/', '.'))
+        return MemberReference(name(reference), descriptor, owner(reference))
     }
+
+    /**
+     * Returns the dotted owner of an SRG member [reference] such as `net/minecraft/Foo/bar`.
+     */
+    fun owner(reference: String) = reference.substring(0, reference.lastIndexOf('/')).replace('/', '.')
+
+    /**
+     * Returns the simple name of an SRG member [reference] such as `net/minecraft/Foo/bar`.
+     */
+    fun name(reference: String) = reference.substring(reference.lastIndexOf('/') + 1)
 }
@@ -25,4 +25,11 @@ import java.nio.file.Path
 
 interface SrgParser {
     fun parseSrg(path: Path): Mappings
+
+    /**
+     * Identifies how this parser currently reads mappings. Snapshots of parsed mappings are only reused for the same
+     * variant, so parsers which can produce different mappings for the same file must return different values.
+     */
+    val variant: String
+        get() = javaClass.simpleName
 }
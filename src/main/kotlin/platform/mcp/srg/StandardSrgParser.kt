@@ -21,17 +21,12 @@
 package com.demonwav.mcdev.platform.mcp.srg
 
 import com.demonwav.mcdev.platform.mcp.mappings.Mappings
-import com.demonwav.mcdev.util.MemberReference
-import com.google.common.collect.ImmutableBiMap
 import java.nio.file.Files
 import java.nio.file.Path
 
 object StandardSrgParser : SrgParser {
     override fun parseSrg(path: Path): Mappings {
-        val classMapBuilder = ImmutableBiMap.builder<String, String>()
-        val fieldMapBuilder = ImmutableBiMap.builder<MemberReference, MemberReference>()
-        val methodMapBuilder = ImmutableBiMap.builder<MemberReference, MemberReference>()
-        val srgNames = hashMapOf<String, String>()
+        val builder = Mappings.Builder()
 
         Files.lines(path).forEach { line ->
             val parts = line.split(' ')
@@ -39,23 +34,41 @@ object StandardSrgParser : SrgParser {
                 "CL:" -> {
                     val srg = parts[1].replace('/', '.')
                     val mcp = parts[2].replace('/', '.')
-                    classMapBuilder.put(mcp, srg)
+                    builder.addClass(mcp, srg)
                 }
                 "FD:" -> {
-                    val mcp = SrgMemberReference.parse(parts[1])
-                    val srg = SrgMemberReference.parse(parts[2])
-                    fieldMapBuilder.put(mcp, srg)
-                    srgNames[srg.name] = mcp.name
+                    val mcp = parts[1]
+                    val srg = parts[2]
+                    val srgName = SrgMemberReference.name(srg)
+                    val mcpName = SrgMemberReference.name(mcp)
+                    builder.addField(
+                        SrgMemberReference.owner(mcp),
+                        mcpName,
+                        null,
+                        SrgMemberReference.owner(srg),
+                        srgName,
+                        null,
+                    )
+                    builder.addIntermediaryName(srgName, mcpName)
                 }
                 "MD:" -> {
-                    val mcp = SrgMemberReference.parse(parts[1], parts[2])
-                    val srg = SrgMemberReference.parse(parts[3], parts[4])
-                    methodMapBuilder.put(mcp, srg)
-                    srgNames[srg.name] = mcp.name
+                    val mcp = parts[1]
+                    val srg = parts[3]
+                    val srgName = SrgMemberReference.name(srg)
+                    val mcpName = SrgMemberReference.name(mcp)
+                    builder.addMethod(
+                        SrgMemberReference.owner(mcp),
+                        mcpName,
+                        parts[2],
+                        SrgMemberReference.owner(srg),
+                        srgName,
+                        parts[4],
+                    )
+                    builder.addIntermediaryName(srgName, mcpName)
                 }
             }
         }
 
-        return Mappings(classMapBuilder.build(), fieldMapBuilder.build(), methodMapBuilder.build(), srgNames, false)
+        return builder.build()
     }
 }
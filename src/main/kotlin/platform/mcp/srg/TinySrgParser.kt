@@ -21,8 +21,6 @@
 package com.demonwav.mcdev.platform.mcp.srg
 
 import com.demonwav.mcdev.platform.mcp.mappings.Mappings
-import com.demonwav.mcdev.util.MemberReference
-import com.google.common.collect.ImmutableBiMap
 import com.intellij.openapi.util.registry.Registry
 import java.nio.file.Files
 import java.nio.file.Path
@@ -33,34 +31,28 @@ import net.fabricmc.mappingio.MappingVisitor
 object TinySrgParser : SrgParser {
     private val commentRegex = Regex("#.+")
 
-    override fun parseSrg(path: Path): Mappings {
-        val classMapBuilder = ImmutableBiMap.builder<String, String>()
-        val fieldMapBuilder = ImmutableBiMap.builder<MemberReference, MemberReference>()
-        val methodMapBuilder = ImmutableBiMap.builder<MemberReference, MemberReference>()
-        val srgNames = hashMapOf<String, String>()
+    override fun parseSrg(path: Path) = parseSrg(path, Registry.`is`("mcdev.new.tsrg.parser"))
 
-        if (Registry.`is`("mcdev.new.tsrg.parser")) {
-            newParser(path, classMapBuilder, fieldMapBuilder, methodMapBuilder, srgNames)
+    override val variant: String
+        get() = if (Registry.`is`("mcdev.new.tsrg.parser")) "TinySrgParser-new" else "TinySrgParser-old"
+
+    /**
+     * Parses the mappings at [path] with the mapping-io based parser if [newParser] is set, or the line based parser
+     * otherwise. Doesn't need a running application, unlike [parseSrg] which reads the choice from the registry.
+     */
+    fun parseSrg(path: Path, newParser: Boolean): Mappings {
+        val builder = Mappings.Builder()
+
+        if (newParser) {
+            newParser(path, builder)
         } else {
-            oldParser(path, classMapBuilder, fieldMapBuilder, methodMapBuilder, srgNames)
+            oldParser(path, builder)
         }
 
-        return Mappings(
-            classMapBuilder.build(),
-            fieldMapBuilder.build(),
-            methodMapBuilder.build(),
-            srgNames,
-            false,
-        )
+        return builder.build()
     }
 
-    private fun oldParser(
-        path: Path,
-        classMapBuilder: ImmutableBiMap.Builder<String, String>,
-        fieldMapBuilder: ImmutableBiMap.Builder<MemberReference, MemberReference>,
-        methodMapBuilder: ImmutableBiMap.Builder<MemberReference, MemberReference>,
-        srgNames: HashMap<String, String>,
-    ) {
+    private fun oldParser(path: Path, builder: Mappings.Builder) {
         var classRef: Pair<String, String>? = null
 
         Files.lines(path).forEach { line ->
@@ -73,7 +65,7 @@ object TinySrgParser : SrgParser {
                 val (mcp, srg) = cleaned.split(' ')
                 val mcpRef = mcp.replace('/', '.')
                 val srgRef = srg.replace('/', '.')
-                classMapBuilder.put(mcpRef, srgRef)
+                builder.addClass(mcpRef, srgRef)
                 classRef = Pair(mcpRef, srgRef)
                 return@forEach
             }
@@ -85,28 +77,18 @@ object TinySrgParser : SrgParser {
             if (parts.size == 2) {
                 // Field
                 val (mcp, srg) = cleaned.substring(1).split(' ')
-                val mcpRef = SrgMemberReference.parse(clazz.first + "/" + mcp)
-                val srgRef = SrgMemberReference.parse(clazz.second + "/" + srg)
-                fieldMapBuilder.put(mcpRef, srgRef)
-                srgNames[srg] = mcp
+                builder.addField(clazz.first, mcp, null, clazz.second, srg, null)
+                builder.addIntermediaryName(srg, mcp)
             } else if (parts.size == 3) {
                 // Method
                 val (mcp, sig, srg) = cleaned.substring(1).split(' ')
-                val mcpRef = SrgMemberReference.parse(clazz.first + "/" + mcp, sig)
-                val srgRef = SrgMemberReference.parse(clazz.second + "/" + srg, sig)
-                methodMapBuilder.put(mcpRef, srgRef)
-                srgNames[srg] = mcp
+                builder.addMethod(clazz.first, mcp, sig, clazz.second, srg, sig)
+                builder.addIntermediaryName(srg, mcp)
             }
         }
     }
 
-    private fun newParser(
-        path: Path,
-        classMapBuilder: ImmutableBiMap.Builder<String, String>,
-        fieldMapBuilder: ImmutableBiMap.Builder<MemberReference, MemberReference>,
-        methodMapBuilder: ImmutableBiMap.Builder<MemberReference, MemberReference>,
-        srgNames: HashMap<String, String>,
-    ) {
+    private fun newParser(path: Path, builder: Mappings.Builder) {
         val visitor = object : MappingVisitor {
             var namedNsIndex = -1
 
@@ -157,15 +139,15 @@ object TinySrgParser : SrgParser {
                 }
 
                 if (targetKind == MappedElementKind.CLASS) {
-                    classMapBuilder.put(cls, name.replace('/', '.'))
+                    builder.addClass(cls, name.replace('/', '.'))
                 } else if (inter != null) {
                     val inter = inter!!
                     if (targetKind == MappedElementKind.FIELD) {
-                        fieldMapBuilder.put(MemberReference(inter, null, cls), MemberReference(name, null, cls))
-                        srgNames[inter] = name
+                        builder.addField(cls, inter, null, cls, name, null)
+                        builder.addIntermediaryName(inter, name)
                     } else if (targetKind == MappedElementKind.METHOD) {
-                        methodMapBuilder.put(MemberReference(inter, desc, cls), MemberReference(name, desc, cls))
-                        srgNames[inter] = name
+                        builder.addMethod(cls, inter, desc, cls, name, desc)
+                        builder.addIntermediaryName(inter, name)
                     }
                 }
             }
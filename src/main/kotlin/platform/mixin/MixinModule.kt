@@ -25,6 +25,7 @@ import com.demonwav.mcdev.facet.MinecraftFacetDetector
 import com.demonwav.mcdev.platform.AbstractModule
 import com.demonwav.mcdev.platform.PlatformType
 import com.demonwav.mcdev.platform.mixin.config.MixinConfig
+import com.demonwav.mcdev.platform.mixin.config.MixinConfigIndex
 import com.demonwav.mcdev.platform.mixin.framework.MIXIN_LIBRARY_KIND
 import com.demonwav.mcdev.util.SemanticVersion
 import com.demonwav.mcdev.util.nullable
@@ -73,9 +74,7 @@ class MixinModule(facet: MinecraftFacet) : AbstractModule(facet) {
             project: Project,
             scope: GlobalSearchScope,
         ): Collection<PsiClass> {
-            return getMixinConfigs(project, scope).asSequence()
-                .flatMap { (it.qualifiedMixins + it.qualifiedClient + it.qualifiedServer).asSequence() }
-                .filterNotNull()
+            return MixinConfigIndex.getAllMixinNames(project, scope).asSequence()
                 .map { it.replace('$', '.') }
                 .distinct()
                 .flatMap { JavaPsiFacade.getInstance(project).findClasses(it, scope).asSequence() }
@@ -87,9 +86,11 @@ class MixinModule(facet: MinecraftFacet) : AbstractModule(facet) {
             scope: GlobalSearchScope,
             mixinClassName: String,
         ): MixinConfig? {
-            return getMixinConfigs(project, scope)
-                .filter { it.isWritable && mixinClassName.startsWith("${it.pkg}.") }
-                .maxByOrNull { it.pkg?.length ?: 0 }
+            val psiManager = PsiManager.getInstance(project)
+            return MixinConfigIndex.findConfigsForPackageOf(mixinClassName, scope)
+                .mapNotNull { (psiManager.findFile(it) as? JsonFile)?.topLevelValue as? JsonObject }
+                .map { MixinConfig(project, it) }
+                .firstOrNull { it.isWritable }
         }
     }
 }
@@ -20,7 +20,7 @@
 
 package com.demonwav.mcdev.platform.mixin.action
 
-import com.demonwav.mcdev.platform.mixin.util.MixinConstants
+import com.demonwav.mcdev.platform.mixin.search.MixinTargetIndex
 import com.demonwav.mcdev.platform.mixin.util.mixinTargets
 import com.demonwav.mcdev.util.cached
 import com.demonwav.mcdev.util.findReferencedClass
@@ -40,10 +40,8 @@ import com.intellij.openapi.project.Project
 import com.intellij.openapi.wm.ToolWindow
 import com.intellij.openapi.wm.ToolWindowFactory
 import com.intellij.openapi.wm.ToolWindowManager
-import com.intellij.psi.JavaPsiFacade
 import com.intellij.psi.PsiClass
 import com.intellij.psi.search.GlobalSearchScope
-import com.intellij.psi.search.searches.AnnotatedElementsSearch
 import com.intellij.psi.util.PsiModificationTracker
 import com.intellij.ui.content.ContentFactory
 
@@ -70,25 +68,20 @@ class FindMixinsAction : AnAction() {
                 val targetInternalName = clazz.fullQualifiedName?.replace('.', '/')
                     ?: return@cached null
 
-                val mixinAnnotation = JavaPsiFacade.getInstance(project).findClass(
-                    MixinConstants.Annotations.MIXIN,
-                    GlobalSearchScope.allScope(project),
+                // Only check the Mixin classes that mention the target by name
+                val candidates = MixinTargetIndex.findCandidateMixins(
+                    project,
+                    targetInternalName,
+                    GlobalSearchScope.projectScope(project),
                 ) ?: return@cached null
 
-                // Check all classes with the Mixin annotation
-                val classes = AnnotatedElementsSearch.searchPsiClasses(
-                    mixinAnnotation,
-                    GlobalSearchScope.projectScope(project),
-                )
-                    .filter {
-                        indicator?.text = "Checking ${it.name}..."
+                candidates.filter {
+                    indicator?.text = "Checking ${it.name}..."
 
-                        it.mixinTargets.any { c ->
-                            c.name == targetInternalName
-                        }
+                    it.mixinTargets.any { c ->
+                        c.name == targetInternalName
                     }
-
-                classes
+                }
             }
         }
     }
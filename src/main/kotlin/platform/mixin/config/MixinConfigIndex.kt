@@ -0,0 +1,150 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.platform.mixin.config
+
+import com.intellij.json.psi.JsonArray
+import com.intellij.json.psi.JsonFile
+import com.intellij.json.psi.JsonObject
+import com.intellij.json.psi.JsonStringLiteral
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.search.FileTypeIndex
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.util.indexing.DataIndexer
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter
+import com.intellij.util.indexing.FileBasedIndex
+import com.intellij.util.indexing.FileBasedIndexExtension
+import com.intellij.util.indexing.FileContent
+import com.intellij.util.indexing.ID
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.EnumeratorIntegerDescriptor
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.KeyDescriptor
+
+/**
+ * Indexes Mixin configuration files by the fully qualified names of the Mixin classes they list, and by their
+ * package. Values are a bit set of the lists ([COMMON], [CLIENT] or [SERVER]) the class appears in, or [PACKAGE] for
+ * the config's own package.
+ */
+class MixinConfigIndex : FileBasedIndexExtension<String, Int>() {
+    override fun getName() = NAME
+
+    override fun getVersion() = 1
+
+    override fun dependsOnFileContent() = true
+
+    override fun getValueExternalizer(): DataExternalizer<Int> = EnumeratorIntegerDescriptor.INSTANCE
+
+    override fun getIndexer(): DataIndexer<String, Int, FileContent> = Indexer
+
+    override fun getInputFilter(): FileBasedIndex.InputFilter = DefaultFileTypeSpecificInputFilter(MixinConfigFileType)
+
+    override fun getKeyDescriptor(): KeyDescriptor<String> = EnumeratorStringDescriptor.INSTANCE
+
+    companion object {
+        val NAME = ID.create<String, Int>("MixinConfigIndex")
+
+        const val COMMON = 1
+        const val CLIENT = 2
+        const val SERVER = 4
+        const val PACKAGE = 8
+
+        private const val ANY_SIDE = COMMON or CLIENT or SERVER
+
+        /**
+         * Returns whether any Mixin config in [scope] lists the class [qualifiedName].
+         */
+        fun isInAnyConfig(qualifiedName: String, scope: GlobalSearchScope): Boolean {
+            return !FileBasedIndex.getInstance()
+                .processValues(NAME, qualifiedName, null, { _, value -> value and ANY_SIDE == 0 }, scope)
+        }
+
+        /**
+         * Returns the fully qualified names of all Mixin classes listed in the Mixin configs in [scope], as they're
+         * written in the config, so inner classes are separated with `$`.
+         */
+        fun getAllMixinNames(project: Project, scope: GlobalSearchScope): Set<String> {
+            val index = FileBasedIndex.getInstance()
+            val result = mutableSetOf<String>()
+            for (file in FileTypeIndex.getFiles(MixinConfigFileType, scope)) {
+                for ((name, value) in index.getFileData(NAME, file, project)) {
+                    if (value and ANY_SIDE != 0) {
+                        result += name
+                    }
+                }
+            }
+            return result
+        }
+
+        /**
+         * Returns the writable Mixin config files in [scope] whose package contains [mixinClassName], ordered from the
+         * longest package to the shortest. The sequence is lazy, the index is only queried for shorter packages once
+         * the configs of the longer ones have been consumed.
+         */
+        fun findConfigsForPackageOf(mixinClassName: String, scope: GlobalSearchScope): Sequence<VirtualFile> =
+            sequence {
+                val index = FileBasedIndex.getInstance()
+                var pkg = mixinClassName
+                while (true) {
+                    val dot = pkg.lastIndexOf('.')
+                    if (dot <= 0) {
+                        break
+                    }
+                    pkg = pkg.substring(0, dot)
+
+                    val files = mutableListOf<VirtualFile>()
+                    index.processValues(
+                        NAME,
+                        pkg,
+                        null,
+                        { file, value ->
+                            if (value and PACKAGE != 0 && file.isWritable) {
+                                files += file
+                            }
+                            true
+                        },
+                        scope,
+                    )
+                    yieldAll(files)
+                }
+            }
+    }
+
+    private object Indexer : DataIndexer<String, Int, FileContent> {
+        override fun map(inputData: FileContent): MutableMap<String, Int> {
+            val json = (inputData.psiFile as? JsonFile)?.topLevelValue as? JsonObject ?: return mutableMapOf()
+            val pkg = (json.findProperty("package")?.value as? JsonStringLiteral)?.value ?: return mutableMapOf()
+
+            val result = mutableMapOf(pkg to PACKAGE)
+            fun addMixins(key: String, side: Int) {
+                val array = json.findProperty(key)?.value as? JsonArray ?: return
+                for (value in array.valueList) {
+                    val name = (value as? JsonStringLiteral)?.value ?: continue
+                    result.merge("$pkg.$name", side, Int::or)
+                }
+            }
+            addMixins("mixins", COMMON)
+            addMixins("client", CLIENT)
+            addMixins("server", SERVER)
+            return result
+        }
+    }
+}
@@ -56,13 +56,9 @@ import org.objectweb.asm.Type
 import org.objectweb.asm.tree.AbstractInsnNode
 import org.objectweb.asm.tree.ClassNode
 import org.objectweb.asm.tree.FrameNode
-import org.objectweb.asm.tree.InsnNode
-import org.objectweb.asm.tree.IntInsnNode
 import org.objectweb.asm.tree.JumpInsnNode
 import org.objectweb.asm.tree.LabelNode
-import org.objectweb.asm.tree.LdcInsnNode
 import org.objectweb.asm.tree.MethodNode
-import org.objectweb.asm.tree.TypeInsnNode
 
 class ConstantInjectionPoint : InjectionPoint<PsiElement>() {
     companion object {
@@ -312,14 +308,19 @@ class ConstantInjectionPoint : InjectionPoint<PsiElement>() {
         private val expectedType: Type? = null,
     ) : CollectVisitor<PsiElement>(mode) {
         override fun accept(methodNode: MethodNode) {
-            methodNode.instructions?.iterator()?.forEachRemaining { insn ->
-                val constant = (
-                    insn.computeConstantValue(constantInfo?.expandConditions ?: emptySet())
-                        ?: return@forEachRemaining
-                    ).let { if (it is NullSentinel) null else it }
+            val expandConditions = constantInfo?.expandConditions ?: emptySet()
+            val index = InstructionIndex.of(methodNode)
+            val candidates = if (constantInfo != null) {
+                index.constantInsns(constantInfo.constant ?: NullSentinel, expandConditions.isNotEmpty())
+            } else {
+                index.constantInsns(expandConditions.isNotEmpty())
+            }
+            for (insn in candidates) {
+                val constant = (insn.computeConstantValue(expandConditions) ?: continue)
+                    .let { if (it is NullSentinel) null else it }
 
                 if (constantInfo != null && constant != constantInfo.constant) {
-                    return@forEachRemaining
+                    continue
                 }
 
                 if (expectedType != null && constant != null) {
@@ -329,7 +330,7 @@ class ConstantInjectionPoint : InjectionPoint<PsiElement>() {
                             expectedType.className != CommonClassNames.JAVA_LANG_STRING
                         )
                     ) {
-                        return@forEachRemaining
+                        continue
                     }
 
                     // then check if we expect any class literal
@@ -338,14 +339,14 @@ class ConstantInjectionPoint : InjectionPoint<PsiElement>() {
                             expectedType.className != CommonClassNames.JAVA_LANG_CLASS
                         )
                     ) {
-                        return@forEachRemaining
+                        continue
                     }
 
                     // otherwise we expect a primitive literal
                     if (expectedType.sort in Type.BOOLEAN..Type.DOUBLE &&
                         constant::class.javaPrimitiveType?.let(Type::getType) != expectedType
                     ) {
-                        return@forEachRemaining
+                        continue
                     }
                 }
 
@@ -361,60 +362,27 @@ class ConstantInjectionPoint : InjectionPoint<PsiElement>() {
     }
 }
 
-private object NullSentinel
-
 private fun AbstractInsnNode.computeConstantValue(expandConditions: Set<ConstantInjectionPoint.ExpandCondition>): Any? {
-    return when (this) {
-        is InsnNode -> when (opcode) {
-            in Opcodes.ICONST_M1..Opcodes.ICONST_5 -> opcode - Opcodes.ICONST_0
-            Opcodes.LCONST_0 -> 0L
-            Opcodes.LCONST_1 -> 1L
-            Opcodes.FCONST_0 -> 0.0f
-            Opcodes.FCONST_1 -> 1.0f
-            Opcodes.FCONST_2 -> 2.0f
-            Opcodes.DCONST_0 -> 0.0
-            Opcodes.DCONST_1 -> 1.0
-            Opcodes.ACONST_NULL -> NullSentinel
-            else -> null
-        }
-
-        is IntInsnNode -> when (opcode) {
-            Opcodes.BIPUSH, Opcodes.SIPUSH -> operand
-            else -> null
-        }
-
-        is LdcInsnNode -> cst
-        is JumpInsnNode -> {
-            if (expandConditions.none { opcode in it.opcodes }) {
-                return null
-            }
-            var lastInsn = previous
-            while (lastInsn != null && (lastInsn is LabelNode || lastInsn is FrameNode)) {
-                lastInsn = lastInsn.previous
-            }
-            if (lastInsn != null) {
-                val lastOpcode = lastInsn.opcode
-                if (lastOpcode == Opcodes.LCMP ||
-                    lastOpcode == Opcodes.FCMPL ||
-                    lastOpcode == Opcodes.FCMPG ||
-                    lastOpcode == Opcodes.DCMPL ||
-                    lastOpcode == Opcodes.DCMPG
-                ) {
-                    return null
-                }
-            }
-            0
-        }
-
-        is TypeInsnNode -> {
-            if (opcode < Opcodes.CHECKCAST) {
-                // Don't treat NEW and ANEWARRAY as constants
-                // Matches Mixin's handling
-                return null
-            }
-            Type.getObjectType(desc)
+    if (this !is JumpInsnNode) {
+        return computeSimpleConstantValue()
+    }
+    if (expandConditions.none { opcode in it.opcodes }) {
+        return null
+    }
+    var lastInsn = previous
+    while (lastInsn != null && (lastInsn is LabelNode || lastInsn is FrameNode)) {
+        lastInsn = lastInsn.previous
+    }
+    if (lastInsn != null) {
+        val lastOpcode = lastInsn.opcode
+        if (lastOpcode == Opcodes.LCMP ||
+            lastOpcode == Opcodes.FCMPL ||
+            lastOpcode == Opcodes.FCMPG ||
+            lastOpcode == Opcodes.DCMPL ||
+            lastOpcode == Opcodes.DCMPG
+        ) {
+            return null
         }
-
-        else -> null
     }
+    return 0
 }
@@ -44,6 +44,7 @@ import com.intellij.psi.PsiTypes
 import com.intellij.psi.codeStyle.CodeStyleManager
 import com.intellij.psi.util.parentOfType
 import com.intellij.util.ArrayUtilRt
+import org.objectweb.asm.tree.AbstractInsnNode
 import org.objectweb.asm.tree.ClassNode
 import org.objectweb.asm.tree.LdcInsnNode
 import org.objectweb.asm.tree.MethodInsnNode
@@ -203,26 +204,24 @@ class ConstantStringMethodInjectionPoint : AbstractMethodInjectionPoint() {
         private val ldc: String?,
     ) : CollectVisitor<PsiMethod>(mode) {
         override fun accept(methodNode: MethodNode) {
-            val insns = methodNode.instructions ?: return
-            var seenStringConstant: String? = null
-            insns.iterator().forEachRemaining { insn ->
-                if (insn is MethodInsnNode) {
-                    // make sure we're coming from a string constant
-                    if (seenStringConstant != null) {
-                        if (ldc == null || ldc == seenStringConstant) {
-                            processMethodInsn(insn)
-                        }
-                    }
-                }
-                val cst = (insn as? LdcInsnNode)?.cst
-                if (cst is String) {
-                    seenStringConstant = cst
-                } else if (insn.opcode != -1) {
-                    seenStringConstant = null
+            val index = InstructionIndex.of(methodNode)
+            for (insn in index.methodInsns(selector.takeIf { mode != Mode.COMPLETION })) {
+                // make sure we're coming from a string constant
+                val seenStringConstant = findPreviousStringConstant(insn) ?: continue
+                if (ldc == null || ldc == seenStringConstant) {
+                    processMethodInsn(insn)
                 }
             }
         }
 
+        private fun findPreviousStringConstant(insn: AbstractInsnNode): String? {
+            var prev = insn.previous
+            while (prev != null && prev.opcode == -1) {
+                prev = prev.previous
+            }
+            return (prev as? LdcInsnNode)?.cst as? String
+        }
+
         private fun processMethodInsn(insn: MethodInsnNode) {
             // must take a string and return void
             if (insn.desc != "(Ljava/lang/String;)V") return
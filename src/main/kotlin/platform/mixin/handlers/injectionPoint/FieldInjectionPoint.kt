@@ -192,22 +192,21 @@ class FieldInjectionPoint : QualifiedInjectionPoint<PsiField>() {
         private val fuzz: Int,
     ) : CollectVisitor<PsiField>(mode) {
         override fun accept(methodNode: MethodNode) {
-            val insns = methodNode.instructions ?: return
-            insns.iterator().forEachRemaining { insn ->
-                if (insn !is FieldInsnNode) return@forEachRemaining
+            val index = InstructionIndex.of(methodNode)
+            for (insn in index.fieldInsns(selector.takeIf { mode != Mode.COMPLETION })) {
                 if (mode != Mode.COMPLETION) {
                     if (opcode != -1 && opcode != insn.opcode) {
-                        return@forEachRemaining
+                        continue
                     }
                     if (!selector.matchField(insn.owner, insn.name, insn.desc)) {
-                        return@forEachRemaining
+                        continue
                     }
                 }
                 val actualInsn = if (arrayAccess == null) {
                     insn
                 } else {
                     findArrayInsn(insn, arrayAccess)
-                } ?: return@forEachRemaining
+                } ?: continue
                 val fieldNode = insn.fakeResolve()
                 val psiField = fieldNode.field.findOrConstructSourceField(
                     fieldNode.clazz,
@@ -0,0 +1,273 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.platform.mixin.handlers.injectionPoint
+
+import com.demonwav.mcdev.platform.mixin.reference.MixinSelector
+import com.intellij.util.containers.ContainerUtil
+import org.objectweb.asm.Opcodes
+import org.objectweb.asm.Type
+import org.objectweb.asm.tree.AbstractInsnNode
+import org.objectweb.asm.tree.FieldInsnNode
+import org.objectweb.asm.tree.InsnList
+import org.objectweb.asm.tree.InsnNode
+import org.objectweb.asm.tree.IntInsnNode
+import org.objectweb.asm.tree.JumpInsnNode
+import org.objectweb.asm.tree.LdcInsnNode
+import org.objectweb.asm.tree.MethodInsnNode
+import org.objectweb.asm.tree.MethodNode
+import org.objectweb.asm.tree.TypeInsnNode
+import org.objectweb.asm.tree.VarInsnNode
+
+/**
+ * An index of the instructions of a [MethodNode] that collect visitors are interested in, so that they can jump
+ * straight to the candidate instructions instead of scanning the whole method for every `@At`.
+ *
+ * Every lookup returns instructions in the order they appear in the method, so that ordinals and slices behave the
+ * same as with a linear scan. Indexes are built lazily and shared through [of]; callers must still check each
+ * candidate, the index only narrows down which instructions need checking.
+ */
+class InstructionIndex private constructor(method: MethodNode) {
+    private val instructions: InsnList? = method.instructions
+    private val insns: Array<AbstractInsnNode> = instructions?.toArray() ?: emptyArray()
+
+    private val methodInsnsByName: Map<String, IntArray>
+    private val fieldInsnsByName: Map<String, IntArray>
+    private val constantsByValue: Map<Any, IntArray>
+    private val constants: IntArray
+    private val zeroComparisons: IntArray
+    private val newInsnsByType: Map<String, IntArray>
+    private val newInsns: IntArray
+    private val initCalls: Map<TypeInsnNode, MethodInsnNode>
+    private val varInsnsByOpcode: Map<Int, IntArray>
+
+    init {
+        val methodInsns = mutableMapOf<String, IntArrayList>()
+        val fieldInsns = mutableMapOf<String, IntArrayList>()
+        val constantValues = mutableMapOf<Any, IntArrayList>()
+        val allConstants = IntArrayList()
+        val jumps = IntArrayList()
+        val newTypes = mutableMapOf<String, IntArrayList>()
+        val allNews = IntArrayList()
+        val inits = mutableMapOf<TypeInsnNode, MethodInsnNode>()
+        val varInsns = mutableMapOf<Int, IntArrayList>()
+
+        // NEW instructions waiting for their constructor call, the innermost one is always the one being initialized
+        val pendingNews = IntArrayList()
+
+        for ((i, insn) in insns.withIndex()) {
+            when (insn) {
+                is MethodInsnNode -> {
+                    methodInsns.getOrPut(insn.name, ::IntArrayList).add(i)
+                    if (insn.opcode == Opcodes.INVOKESPECIAL && insn.name == "<init>" && pendingNews.size > 0) {
+                        val newIndex = pendingNews.removeLast()
+                        inits[insns[newIndex] as TypeInsnNode] = insn
+                        newTypes.getOrPut(insn.owner, ::IntArrayList).add(newIndex)
+                    }
+                }
+                is FieldInsnNode -> fieldInsns.getOrPut(insn.name, ::IntArrayList).add(i)
+                is VarInsnNode -> varInsns.getOrPut(insn.opcode, ::IntArrayList).add(i)
+                is JumpInsnNode -> if (insn.opcode in Opcodes.IFLT..Opcodes.IFLE) {
+                    jumps.add(i)
+                }
+                is TypeInsnNode -> if (insn.opcode == Opcodes.NEW) {
+                    pendingNews.add(i)
+                    allNews.add(i)
+                }
+            }
+
+            val constant = insn.computeSimpleConstantValue()
+            if (constant != null) {
+                constantValues.getOrPut(constant, ::IntArrayList).add(i)
+                allConstants.add(i)
+            }
+        }
+
+        methodInsnsByName = methodInsns.mapValues { it.value.toArray() }
+        fieldInsnsByName = fieldInsns.mapValues { it.value.toArray() }
+        constantsByValue = constantValues.mapValues { it.value.toArray() }
+        constants = allConstants.toArray()
+        zeroComparisons = jumps.toArray()
+        // constructor calls are found innermost first, sort so that lookups stay in instruction order
+        newInsnsByType = newTypes.mapValues { it.value.toArray().apply { sort() } }
+        newInsns = allNews.toArray()
+        initCalls = inits
+        varInsnsByOpcode = varInsns.mapValues { it.value.toArray() }
+    }
+
+    /**
+     * Returns the method instructions whose name [selector] can match, or all of them if [selector] is `null`.
+     */
+    fun methodInsns(selector: MixinSelector?): List<MethodInsnNode> {
+        return collect(byName(methodInsnsByName, selector))
+    }
+
+    /**
+     * Returns the field instructions whose name [selector] can match, or all of them if [selector] is `null`.
+     */
+    fun fieldInsns(selector: MixinSelector?): List<FieldInsnNode> {
+        return collect(byName(fieldInsnsByName, selector))
+    }
+
+    /**
+     * Returns the instructions pushing the constant [value], where `null` is represented by [NullSentinel]. If
+     * [includeZeroComparisons] is set and [value] is `0`, conditional jumps comparing against zero are included too.
+     */
+    fun constantInsns(value: Any, includeZeroComparisons: Boolean): List<AbstractInsnNode> {
+        val buckets = listOfNotNull(
+            constantsByValue[value],
+            zeroComparisons.takeIf { includeZeroComparisons && value == 0 },
+        )
+        return collect(buckets)
+    }
+
+    /**
+     * Returns all instructions pushing a constant, including conditional jumps comparing against zero if
+     * [includeZeroComparisons] is set.
+     */
+    fun constantInsns(includeZeroComparisons: Boolean): List<AbstractInsnNode> {
+        return collect(listOfNotNull(constants, zeroComparisons.takeIf { includeZeroComparisons }))
+    }
+
+    /**
+     * Returns the `NEW` instructions creating an instance of [type], given as an internal name, or all of them if
+     * [type] is `null`.
+     */
+    fun newInsns(type: String?): List<TypeInsnNode> {
+        return if (type == null) {
+            collect(listOf(newInsns))
+        } else {
+            collect(listOfNotNull(newInsnsByType[type]))
+        }
+    }
+
+    /**
+     * Returns the constructor call initializing the object created by [newInsn], same as
+     * [NewInsnInjectionPoint.findInitCall].
+     */
+    fun findInitCall(newInsn: TypeInsnNode): MethodInsnNode? {
+        return initCalls[newInsn]
+    }
+
+    /**
+     * Returns the local variable instructions with any of the given [opcodes].
+     */
+    fun varInsns(opcodes: IntRange): List<VarInsnNode> {
+        return collect(opcodes.mapNotNull { varInsnsByOpcode[it] })
+    }
+
+    private fun byName(index: Map<String, IntArray>, selector: MixinSelector?): List<IntArray> {
+        if (selector == null) {
+            return index.values.toList()
+        }
+        return index.mapNotNull { (name, positions) -> positions.takeIf { selector.canEverMatch(name) } }
+    }
+
+    private fun <T : AbstractInsnNode> collect(buckets: List<IntArray>): List<T> {
+        val positions = when (buckets.size) {
+            0 -> return emptyList()
+            1 -> buckets.single()
+            else -> buckets.reduce(IntArray::plus).apply { sort() }
+        }
+        @Suppress("UNCHECKED_CAST")
+        return positions.map { insns[it] as T }
+    }
+
+    private fun isUpToDate(method: MethodNode): Boolean {
+        return method.instructions === instructions && (instructions?.size() ?: 0) == insns.size
+    }
+
+    private class IntArrayList {
+        private var data = IntArray(4)
+        var size = 0
+            private set
+
+        fun add(value: Int) {
+            if (size == data.size) {
+                data = data.copyOf(size * 2)
+            }
+            data[size++] = value
+        }
+
+        fun removeLast() = data[--size]
+
+        fun toArray() = data.copyOf(size)
+    }
+
+    companion object {
+        private val cache = ContainerUtil.createConcurrentWeakMap<MethodNode, InstructionIndex>()
+
+        /**
+         * Returns the instruction index of [method], building it if needed. [MethodNode]s are compared by identity,
+         * and the index is rebuilt if the instructions of the method were replaced.
+         */
+        fun of(method: MethodNode): InstructionIndex {
+            cache[method]?.let { index ->
+                if (index.isUpToDate(method)) {
+                    return index
+                }
+            }
+            return InstructionIndex(method).also { cache[method] = it }
+        }
+    }
+}
+
+/**
+ * Represents the `null` constant pushed by `ACONST_NULL`.
+ */
+internal object NullSentinel
+
+/**
+ * Returns the constant pushed by this instruction, or `null` if it doesn't push a constant. Doesn't handle implicit
+ * constants such as comparisons against zero.
+ */
+internal fun AbstractInsnNode.computeSimpleConstantValue(): Any? {
+    return when (this) {
+        is InsnNode -> when (opcode) {
+            in Opcodes.ICONST_M1..Opcodes.ICONST_5 -> opcode - Opcodes.ICONST_0
+            Opcodes.LCONST_0 -> 0L
+            Opcodes.LCONST_1 -> 1L
+            Opcodes.FCONST_0 -> 0.0f
+            Opcodes.FCONST_1 -> 1.0f
+            Opcodes.FCONST_2 -> 2.0f
+            Opcodes.DCONST_0 -> 0.0
+            Opcodes.DCONST_1 -> 1.0
+            Opcodes.ACONST_NULL -> NullSentinel
+            else -> null
+        }
+
+        is IntInsnNode -> when (opcode) {
+            Opcodes.BIPUSH, Opcodes.SIPUSH -> operand
+            else -> null
+        }
+
+        is LdcInsnNode -> cst
+        is TypeInsnNode -> {
+            if (opcode < Opcodes.CHECKCAST) {
+                // Don't treat NEW and ANEWARRAY as constants
+                // Matches Mixin's handling
+                return null
+            }
+            Type.getObjectType(desc)
+        }
+
+        else -> null
+    }
+}
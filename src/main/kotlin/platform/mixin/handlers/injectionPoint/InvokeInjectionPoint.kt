@@ -36,7 +36,6 @@ import com.intellij.psi.PsiMethod
 import com.intellij.psi.PsiMethodCallExpression
 import com.intellij.psi.PsiNewExpression
 import org.objectweb.asm.tree.ClassNode
-import org.objectweb.asm.tree.MethodInsnNode
 import org.objectweb.asm.tree.MethodNode
 
 abstract class AbstractInvokeInjectionPoint(private val assign: Boolean) : AbstractMethodInjectionPoint() {
@@ -150,13 +149,9 @@ abstract class AbstractInvokeInjectionPoint(private val assign: Boolean) : Abstr
         private val assign: Boolean,
     ) : CollectVisitor<PsiMethod>(mode) {
         override fun accept(methodNode: MethodNode) {
-            val insns = methodNode.instructions ?: return
-            insns.iterator().forEachRemaining { insn ->
-                if (insn !is MethodInsnNode) {
-                    return@forEachRemaining
-                }
-
-                val sourceMethod = nodeMatchesSelector(insn, mode, selector, project) ?: return@forEachRemaining
+            val index = InstructionIndex.of(methodNode)
+            for (insn in index.methodInsns(selector.takeIf { mode != Mode.COMPLETION })) {
+                val sourceMethod = nodeMatchesSelector(insn, mode, selector, project) ?: continue
                 val actualInsn = if (assign) insn.next else insn
                 if (actualInsn != null) {
                     addResult(
@@ -298,26 +298,12 @@ abstract class AbstractLoadInjectionPoint(private val store: Boolean) : Injectio
             if (store && opcode != null) {
                 opcode += (Opcodes.ISTORE - Opcodes.ILOAD)
             }
-            for (insn in methodNode.instructions) {
-                if (insn !is VarInsnNode) {
-                    continue
-                }
-                if (opcode != null) {
-                    if (opcode != insn.opcode) {
-                        continue
-                    }
-                } else {
-                    if (store) {
-                        if (insn.opcode < Opcodes.ISTORE || insn.opcode > Opcodes.ASTORE) {
-                            continue
-                        }
-                    } else {
-                        if (insn.opcode < Opcodes.ILOAD || insn.opcode > Opcodes.ALOAD) {
-                            continue
-                        }
-                    }
-                }
-
+            val opcodes = when {
+                opcode != null -> opcode..opcode
+                store -> Opcodes.ISTORE..Opcodes.ASTORE
+                else -> Opcodes.ILOAD..Opcodes.ALOAD
+            }
+            for (insn in InstructionIndex.of(methodNode).varInsns(opcodes)) {
                 val localLocation = if (store) insn.next ?: insn else insn
                 val locals = info.getLocals(module, targetClass, methodNode, localLocation) ?: continue
 
@@ -166,13 +166,12 @@ class NewInsnInjectionPoint : InjectionPoint<PsiMember>() {
         private val selector: MixinSelector,
     ) : CollectVisitor<PsiMember>(mode) {
         override fun accept(methodNode: MethodNode) {
-            val insns = methodNode.instructions ?: return
-            insns.iterator().forEachRemaining { insn ->
-                if (insn !is TypeInsnNode) return@forEachRemaining
-                if (insn.opcode != Opcodes.NEW) return@forEachRemaining
-                val initCall = findInitCall(insn) ?: return@forEachRemaining
+            val index = InstructionIndex.of(methodNode)
+            val type = if (mode == Mode.COMPLETION) null else createdType(selector)
+            for (insn in index.newInsns(type)) {
+                val initCall = index.findInitCall(insn) ?: continue
 
-                val sourceMethod = nodeMatchesSelector(initCall, mode, selector, project) ?: return@forEachRemaining
+                val sourceMethod = nodeMatchesSelector(initCall, mode, selector, project) ?: continue
                 addResult(
                     insn,
                     sourceMethod,
@@ -185,6 +184,18 @@ class NewInsnInjectionPoint : InjectionPoint<PsiMember>() {
     companion object {
         private val ARGS_KEYS = arrayOf("class")
 
+        /**
+         * Returns the internal name of the class [selector] matches constructors of, if it can only match one.
+         */
+        private fun createdType(selector: MixinSelector): String? {
+            return when (selector) {
+                is NewInsnTypeSelector -> selector.owner
+                is NewInsnDescriptorSelector -> selector.createdType
+                is MemberReference -> selector.owner?.replace('.', '/')
+                else -> null
+            }
+        }
+
         fun findInitCall(newInsn: TypeInsnNode): MethodInsnNode? {
             var newInsns = 0
             var insn: AbstractInsnNode? = newInsn
@@ -254,10 +265,11 @@ private class NewInsnDescriptorSelector(
 
         val lastParen = methodDescriptor.lastIndexOf(')')
         val argsDesc = methodDescriptor.substring(0, lastParen + 1)
-        val descRet = methodDescriptor.substringAfterLast(')').removeSurrounding("L", ";")
-        return desc.dropLast(1) == argsDesc && descRet == owner
+        return desc.dropLast(1) == argsDesc && createdType == owner
     }
 
+    val createdType = methodDescriptor.substringAfterLast(')').removeSurrounding("L", ";")
+
     override val owner = null
     override val fieldDescriptor = null
     override val displayName = methodDescriptor
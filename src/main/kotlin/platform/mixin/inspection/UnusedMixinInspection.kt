@@ -24,6 +24,7 @@ import com.demonwav.mcdev.platform.forge.inspections.sideonly.Side
 import com.demonwav.mcdev.platform.forge.inspections.sideonly.SideOnlyUtil
 import com.demonwav.mcdev.platform.mixin.MixinModule
 import com.demonwav.mcdev.platform.mixin.config.MixinConfig
+import com.demonwav.mcdev.platform.mixin.config.MixinConfigIndex
 import com.demonwav.mcdev.platform.mixin.util.findStubClass
 import com.demonwav.mcdev.platform.mixin.util.isMixin
 import com.demonwav.mcdev.platform.mixin.util.mixinTargets
@@ -52,16 +53,12 @@ class UnusedMixinInspection : MixinInspection() {
         override fun visitClass(clazz: PsiClass) {
             val module = clazz.findModule() ?: return
             if (clazz.isMixin) {
-                for (config in MixinModule.getMixinConfigs(module.project, GlobalSearchScope.moduleScope(module))) {
-                    if (config.qualifiedMixins.any { it == clazz.fullQualifiedName }) {
-                        return
-                    }
-                    if (config.qualifiedClient.any { it == clazz.fullQualifiedName }) {
-                        return
-                    }
-                    if (config.qualifiedServer.any { it == clazz.fullQualifiedName }) {
-                        return
-                    }
+                val fullQualifiedName = clazz.fullQualifiedName
+                if (
+                    fullQualifiedName != null &&
+                    MixinConfigIndex.isInAnyConfig(fullQualifiedName, GlobalSearchScope.moduleScope(module))
+                ) {
+                    return
                 }
 
                 val bestQuickFixConfig = MixinModule.getBestWritableConfigForMixinClass(
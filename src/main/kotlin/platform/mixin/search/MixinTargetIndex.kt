@@ -0,0 +1,157 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.platform.mixin.search
+
+import com.demonwav.mcdev.platform.mixin.util.MixinConstants
+import com.demonwav.mcdev.platform.mixin.util.isMixin
+import com.intellij.ide.highlighter.JavaFileType
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.psi.PsiAnnotation
+import com.intellij.psi.PsiAnnotationMemberValue
+import com.intellij.psi.PsiArrayInitializerMemberValue
+import com.intellij.psi.PsiClass
+import com.intellij.psi.PsiClassObjectAccessExpression
+import com.intellij.psi.PsiJavaFile
+import com.intellij.psi.PsiLiteralExpression
+import com.intellij.psi.PsiManager
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.util.indexing.DataIndexer
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter
+import com.intellij.util.indexing.FileBasedIndex
+import com.intellij.util.indexing.FileBasedIndexExtension
+import com.intellij.util.indexing.FileContent
+import com.intellij.util.indexing.ID
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.KeyDescriptor
+import com.intellij.util.io.VoidDataExternalizer
+
+/**
+ * Indexes Java files declaring Mixin classes by the simple names of the classes they target, as written in the
+ * `value` and `targets` attributes of the `@Mixin` annotation.
+ *
+ * Nothing is resolved while indexing, so the index only narrows down the files that may contain a Mixin for a given
+ * target; callers still have to check the actual targets of the Mixin classes found in them. Files with string targets
+ * that aren't plain literals, such as constants or concatenations, are indexed under [NON_LITERAL_TARGETS] and are
+ * candidates for every target.
+ */
+class MixinTargetIndex : FileBasedIndexExtension<String, Void>() {
+    override fun getName() = NAME
+
+    override fun getVersion() = 2
+
+    override fun dependsOnFileContent() = true
+
+    override fun getValueExternalizer(): DataExternalizer<Void> = VoidDataExternalizer.INSTANCE
+
+    override fun getIndexer(): DataIndexer<String, Void, FileContent> = Indexer
+
+    override fun getInputFilter(): FileBasedIndex.InputFilter =
+        DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE)
+
+    override fun getKeyDescriptor(): KeyDescriptor<String> = EnumeratorStringDescriptor.INSTANCE
+
+    companion object {
+        val NAME = ID.create<String, Void>("MixinTargetIndex")
+
+        private val MIXIN_SHORT_NAME = MixinConstants.Annotations.MIXIN.substringAfterLast('.')
+
+        /**
+         * Key of the files with targets that can only be known by evaluating them, never a valid class name.
+         */
+        private const val NON_LITERAL_TARGETS = "<non-literal>"
+
+        /**
+         * Returns the Mixin classes in [scope] that may target the class [targetInternalName], or `null` if the index
+         * is not available.
+         */
+        fun findCandidateMixins(
+            project: Project,
+            targetInternalName: String,
+            scope: GlobalSearchScope,
+        ): List<PsiClass>? {
+            if (DumbService.isDumb(project)) {
+                return null
+            }
+
+            val psiManager = PsiManager.getInstance(project)
+            val index = FileBasedIndex.getInstance()
+            val files = LinkedHashSet(index.getContainingFiles(NAME, simpleName(targetInternalName), scope))
+            files += index.getContainingFiles(NAME, NON_LITERAL_TARGETS, scope)
+            return files
+                .flatMap { file ->
+                    val psiFile = psiManager.findFile(file) as? PsiJavaFile ?: return@flatMap emptyList()
+                    PsiTreeUtil.findChildrenOfType(psiFile, PsiClass::class.java).filter { it.isMixin }
+                }
+        }
+
+        private fun simpleName(name: String): String {
+            val start = name.lastIndexOfAny(charArrayOf('.', '/', '$')) + 1
+            return name.substring(start)
+        }
+    }
+
+    private object Indexer : DataIndexer<String, Void, FileContent> {
+        override fun map(inputData: FileContent): MutableMap<String, Void?> {
+            // Cheap check before building the PSI, most Java files aren't Mixins
+            if (!inputData.contentAsText.contains(MIXIN_SHORT_NAME)) {
+                return mutableMapOf()
+            }
+            val file = inputData.psiFile as? PsiJavaFile ?: return mutableMapOf()
+
+            val result = mutableMapOf<String, Void?>()
+            for (clazz in PsiTreeUtil.findChildrenOfType(file, PsiClass::class.java)) {
+                val annotation = clazz.modifierList?.annotations?.firstOrNull {
+                    it.nameReferenceElement?.referenceName == MIXIN_SHORT_NAME
+                } ?: continue
+
+                forEachValue(annotation, "value") { value ->
+                    val operand = (value as? PsiClassObjectAccessExpression)?.operand ?: return@forEachValue
+                    val name = operand.innermostComponentReferenceElement?.referenceName ?: return@forEachValue
+                    result[name] = null
+                }
+                forEachValue(annotation, "targets") { value ->
+                    val name = (value as? PsiLiteralExpression)?.value as? String
+                    if (name == null) {
+                        result[NON_LITERAL_TARGETS] = null
+                    } else {
+                        result[simpleName(name)] = null
+                    }
+                }
+            }
+            return result
+        }
+
+        private inline fun forEachValue(
+            annotation: PsiAnnotation,
+            attribute: String,
+            action: (PsiAnnotationMemberValue) -> Unit,
+        ) {
+            when (val value = annotation.findDeclaredAttributeValue(attribute)) {
+                null -> {}
+                is PsiArrayInitializerMemberValue -> value.initializers.forEach(action)
+                else -> action(value)
+            }
+        }
+    }
+}
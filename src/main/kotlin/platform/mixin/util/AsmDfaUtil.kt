@@ -23,10 +23,17 @@ package com.demonwav.mcdev.platform.mixin.util
 import com.demonwav.mcdev.util.internalName
 import com.intellij.openapi.diagnostic.thisLogger
 import com.intellij.openapi.progress.ProcessCanceledException
+import com.intellij.openapi.project.IndexNotReadyException
 import com.intellij.openapi.project.Project
 import com.intellij.psi.JavaPsiFacade
+import com.intellij.psi.PsiClass
 import com.intellij.psi.PsiClassType
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
 import com.intellij.psi.util.InheritanceUtil
+import com.intellij.psi.util.PsiModificationTracker
+import com.intellij.util.containers.ContainerUtil
+import java.util.concurrent.ConcurrentHashMap
 import org.objectweb.asm.Opcodes
 import org.objectweb.asm.Type
 import org.objectweb.asm.tree.AbstractInsnNode
@@ -41,26 +48,61 @@ import org.objectweb.asm.tree.analysis.SimpleVerifier
 object AsmDfaUtil {
     private val LOGGER = thisLogger()
 
+    /**
+     * Analysis results keyed by [MethodNode] identity. Class nodes are shared per class file version through
+     * [ClassNodeCache], so this works for any method, including synthetic ones without a PSI stub. Keys are weak so
+     * entries go away with their class node, and values are soft so the cache is bounded by available memory.
+     */
+    private val frameCache = ContainerUtil.createConcurrentWeakKeySoftValueMap<MethodNode, AnalyzedMethod>()
+
     fun analyzeMethod(project: Project, clazz: ClassNode, method: MethodNode): Array<Frame<BasicValue>?>? {
-        return method.cached(clazz, project) {
-            try {
-                Analyzer(
-                    PsiBytecodeInterpreter(
-                        project,
-                        Type.getObjectType(clazz.name),
-                        clazz.superName?.let { Type.getObjectType(it) },
-                        clazz.interfaces?.map { Type.getObjectType(it) } ?: emptyList(),
-                        clazz.hasAccess(Opcodes.ACC_INTERFACE),
-                    ),
-                ).analyze(clazz.name, method)
-            } catch (e: AnalyzerException) {
-                val cause = e.cause
-                if (cause is ProcessCanceledException) {
-                    throw cause
+        val hierarchy = getTypeHierarchy(project)
+        frameCache[method]?.let { cached ->
+            if (cached.isUpToDate(clazz, method, hierarchy)) {
+                return cached.frames
+            }
+        }
+
+        val frames = try {
+            Analyzer(
+                PsiBytecodeInterpreter(
+                    hierarchy,
+                    Type.getObjectType(clazz.name),
+                    clazz.superName?.let { Type.getObjectType(it) },
+                    clazz.interfaces?.map { Type.getObjectType(it) } ?: emptyList(),
+                    clazz.hasAccess(Opcodes.ACC_INTERFACE),
+                ),
+            ).analyze(clazz.name, method)
+        } catch (e: AnalyzerException) {
+            // the analyzer wraps any exception thrown while interpreting an instruction
+            when (val cause = e.cause) {
+                is ProcessCanceledException, is IndexNotReadyException -> throw cause
+                null, is AnalyzerException -> {
+                    LOGGER.warn("AsmDfaUtil.analyzeMethod failed", e)
+                    // the bytecode itself can't be analyzed, there's no point in running the analysis again on it
+                    frameCache[method] = AnalyzedMethod(clazz.name, method.instructions?.size() ?: 0, hierarchy, null)
+                }
+                else -> {
+                    // may have been caused by the state of the project rather than the bytecode, so don't cache it
+                    LOGGER.warn("AsmDfaUtil.analyzeMethod failed", e)
                 }
-                LOGGER.warn("AsmDfaUtil.analyzeMethod failed", e)
-                null
             }
+            return null
+        }
+        frameCache[method] = AnalyzedMethod(clazz.name, method.instructions?.size() ?: 0, hierarchy, frames)
+        return frames
+    }
+
+    private fun getTypeHierarchy(project: Project): TypeHierarchy {
+        return CachedValuesManager.getManager(project).getCachedValue(project) {
+            val classNodeTracker = ClassNodeCache.getInstance(project).modificationTracker
+            val modificationStamp = PsiModificationTracker.getInstance(project).modificationCount +
+                classNodeTracker.modificationCount
+            CachedValueProvider.Result(
+                TypeHierarchy(project, modificationStamp),
+                PsiModificationTracker.MODIFICATION_COUNT,
+                classNodeTracker,
+            )
         }
     }
 
@@ -116,8 +158,60 @@ object AsmDfaUtil {
         return (0 until frame.stackSize).map { i -> frame.getStack(i)?.type }.toTypedArray()
     }
 
+    private class AnalyzedMethod(
+        private val className: String,
+        private val instructionCount: Int,
+        hierarchy: TypeHierarchy,
+        val frames: Array<Frame<BasicValue>?>?,
+    ) {
+        private val hierarchyStamp = hierarchy.modificationStamp
+
+        fun isUpToDate(clazz: ClassNode, method: MethodNode, hierarchy: TypeHierarchy): Boolean {
+            return className == clazz.name &&
+                instructionCount == (method.instructions?.size() ?: 0) &&
+                hierarchyStamp == hierarchy.modificationStamp
+        }
+    }
+
+    /**
+     * Memoizes the class hierarchy queries made by [PsiBytecodeInterpreter], which would otherwise resolve the same
+     * classes through PSI over and over again while merging frames. The [modificationStamp] identifies the state of
+     * PSI and class nodes the hierarchy was built from, frames computed against an older hierarchy are stale.
+     */
+    private class TypeHierarchy(private val project: Project, val modificationStamp: Long) {
+        private val classes = ConcurrentHashMap<Type, ResolvedClass>()
+        private val assignable = ConcurrentHashMap<Pair<Type, Type>, Boolean>()
+
+        fun isInterface(type: Type): Boolean {
+            return resolve(type).isInterface
+        }
+
+        fun getSuperClass(type: Type): Type? {
+            return resolve(type).superClass
+        }
+
+        fun isInheritorOrSelf(type: Type, superType: Type): Boolean {
+            return assignable.getOrPut(type to superType) {
+                val clazz = resolve(type).clazz ?: return@getOrPut false
+                val superClass = resolve(superType).clazz ?: return@getOrPut false
+                InheritanceUtil.isInheritorOrSelf(clazz, superClass, true)
+            }
+        }
+
+        private fun resolve(type: Type): ResolvedClass {
+            return classes.getOrPut(type) {
+                val elementFactory = JavaPsiFacade.getElementFactory(project)
+                val clazz = (type.toPsiType(elementFactory) as? PsiClassType)?.resolve()
+                val superClass = clazz?.superClass?.internalName?.let { Type.getObjectType(it) }
+                ResolvedClass(clazz, clazz?.isInterface == true, superClass)
+            }
+        }
+
+        private class ResolvedClass(val clazz: PsiClass?, val isInterface: Boolean, val superClass: Type?)
+    }
+
     private class PsiBytecodeInterpreter(
-        private val project: Project,
+        private val hierarchy: TypeHierarchy,
         private val currentClass: Type,
         private val currentSuperClass: Type?,
         currentClassInterfaces: List<Type>,
@@ -136,22 +230,14 @@ object AsmDfaUtil {
             if (type == currentClass) {
                 return isInterface
             }
-            val elementFactory = JavaPsiFacade.getElementFactory(project)
-            val psiType = type.toPsiType(elementFactory) as? PsiClassType ?: return false
-            val clazz = psiType.resolve() ?: return false
-            return clazz.isInterface
+            return hierarchy.isInterface(type)
         }
 
         override fun getSuperClass(type: Type): Type? {
             if (type == currentClass) {
                 return currentSuperClass
             }
-            val elementFactory = JavaPsiFacade.getElementFactory(project)
-            val psiType = type.toPsiType(elementFactory) as? PsiClassType ?: return null
-            val clazz = psiType.resolve() ?: return null
-            val superClass = clazz.superClass ?: return null
-            val superClassName = superClass.internalName ?: return null
-            return Type.getObjectType(superClassName)
+            return hierarchy.getSuperClass(type)
         }
 
         override fun isAssignableFrom(type1: Type, type2: Type): Boolean {
@@ -171,12 +257,7 @@ object AsmDfaUtil {
                 return isAssignableFrom(type1.elementType, type2.elementType)
             }
             if (type1.sort == Type.OBJECT && type2.sort == Type.OBJECT) {
-                val elementFactory = JavaPsiFacade.getElementFactory(project)
-                val psiType1 = (type1.toPsiType(elementFactory) as? PsiClassType)?.resolve()
-                    ?: return false
-                val psiType2 = (type2.toPsiType(elementFactory) as? PsiClassType)?.resolve()
-                    ?: return false
-                return InheritanceUtil.isInheritorOrSelf(psiType2, psiType1, true)
+                return hierarchy.isInheritorOrSelf(type2, type1)
             }
             return type2 == type1
         }
@@ -31,6 +31,7 @@ import com.demonwav.mcdev.util.findModule
 import com.demonwav.mcdev.util.findQualifiedClass
 import com.demonwav.mcdev.util.fullQualifiedName
 import com.demonwav.mcdev.util.hasSyntheticMethod
+import com.demonwav.mcdev.util.internalName
 import com.demonwav.mcdev.util.isErasureEquivalentTo
 import com.demonwav.mcdev.util.loggerForTopLevel
 import com.demonwav.mcdev.util.mapToArray
@@ -43,6 +44,7 @@ import com.intellij.openapi.progress.ProcessCanceledException
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.roots.CompilerModuleExtension
 import com.intellij.openapi.util.RecursionManager
+import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.psi.JavaPsiFacade
 import com.intellij.psi.JavaRecursiveElementWalkingVisitor
 import com.intellij.psi.PsiAnonymousClass
@@ -173,28 +175,21 @@ fun findClassNodeByQualifiedName(project: Project, module: Module?, fqn: String)
     return findClassNodeByPsiClass(fakePsiClass, module)
 }
 
+/**
+ * Tries to find the bytecode for the given [PsiClass].
+ *
+ * Class nodes read from compiled classes and from the compiler output are shared through the [ClassNodeCache], so
+ * the returned [ClassNode] must not be modified.
+ */
 fun findClassNodeByPsiClass(psiClass: PsiClass, module: Module? = psiClass.findModule()): ClassNode? {
     return try {
-        val bytes = LOAD_CLASS_FILE_BYTES?.invoke(null, psiClass) as? ByteArray
-        if (bytes == null) {
-            // find compiler output
-            if (module == null) return null
-            val fqn = psiClass.fullQualifiedName ?: return null
-            var parentDir = CompilerModuleExtension.getInstance(module)?.compilerOutputPath ?: return null
-            val packageName = fqn.substringBeforeLast('.', "")
-            if (packageName.isNotEmpty()) {
-                for (dir in packageName.split('.')) {
-                    parentDir = parentDir.findChild(dir) ?: return null
-                }
-            }
-            val classFile = parentDir.findChild("${fqn.substringAfterLast('.')}.class") ?: return null
-            val node = ClassNode()
-            classFile.inputStream.use { ClassReader(it).accept(node, 0) }
-            node
+        val cache = ClassNodeCache.getInstance(psiClass.project)
+        val compiledClassFile = psiClass.findCompiledClassFile()
+        val internalName = psiClass.internalName
+        if (compiledClassFile != null && internalName != null) {
+            cache.getOrLoad(compiledClassFile, internalName) { readClassNode(psiClass, module, cache) }
         } else {
-            val node = ClassNode()
-            ClassReader(bytes).accept(node, 0)
-            node
+            readClassNode(psiClass, module, cache)
         }
     } catch (e: Throwable) {
         val actualThrowable = if (e is InvocationTargetException) e.cause ?: e else e
@@ -215,6 +210,53 @@ fun findClassNodeByPsiClass(psiClass: PsiClass, module: Module? = psiClass.findM
     }
 }
 
+private fun readClassNode(psiClass: PsiClass, module: Module?, cache: ClassNodeCache): ClassNode? {
+    val bytes = LOAD_CLASS_FILE_BYTES?.invoke(null, psiClass) as? ByteArray
+    if (bytes != null) {
+        val node = ClassNode()
+        ClassReader(bytes).accept(node, 0)
+        return node
+    }
+
+    // find compiler output
+    if (module == null) return null
+    val fqn = psiClass.fullQualifiedName ?: return null
+    var parentDir = CompilerModuleExtension.getInstance(module)?.compilerOutputPath ?: return null
+    val packageName = fqn.substringBeforeLast('.', "")
+    if (packageName.isNotEmpty()) {
+        for (dir in packageName.split('.')) {
+            parentDir = parentDir.findChild(dir) ?: return null
+        }
+    }
+    val classFile = parentDir.findChild("${fqn.substringAfterLast('.')}.class") ?: return null
+    return cache.getOrLoad(classFile, fqn.replace('.', '/')) {
+        val node = ClassNode()
+        classFile.inputStream.use { ClassReader(it).accept(node, 0) }
+        node
+    }
+}
+
+/**
+ * Whether the bytecode of this class is read from a compiled class file, usually in a library, rather than from the
+ * compiler output of project sources.
+ */
+val PsiClass.hasCompiledClassFile: Boolean
+    get() = findCompiledClassFile() != null
+
+/**
+ * Finds the class file that the given class was decompiled from. For inner classes this is the class file of the
+ * outermost class. Classes constructed by [constructClass] are resolved through the real class they're associated with.
+ */
+private fun PsiClass.findCompiledClassFile(): VirtualFile? {
+    val file = containingFile ?: return null
+    if (file is PsiCompiledFile) {
+        return file.virtualFile
+    }
+    val outerClass = (file as? PsiJavaFile)?.classes?.firstOrNull() ?: return null
+    val compiledClass = outerClass.getUserData(ClsElementImpl.COMPILED_ELEMENT) ?: return null
+    return (compiledClass.containingFile as? PsiCompiledFile)?.virtualFile
+}
+
 private fun ClassNode.constructClass(project: Project, body: String): PsiClass? {
     val outerClassName = name.substringBefore('$')
     val packageName = outerClassName.substringBeforeLast('/', "").replace('/', '.')
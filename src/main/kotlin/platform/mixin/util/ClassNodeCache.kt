@@ -0,0 +1,119 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.platform.mixin.util
+
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.ModuleRootEvent
+import com.intellij.openapi.roots.ModuleRootListener
+import com.intellij.openapi.util.SimpleModificationTracker
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.openapi.vfs.VirtualFileManager
+import com.intellij.openapi.vfs.newvfs.BulkFileListener
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent
+import com.intellij.util.containers.ContainerUtil
+import org.objectweb.asm.tree.ClassNode
+
+/**
+ * Project level cache of parsed [ClassNode]s, keyed by the class file they were read from.
+ *
+ * Entries are held through soft references so the cache is bounded by available memory, and are dropped when the
+ * backing file changes in the VFS or when the project roots (and therefore libraries) change. The [ClassNode]s handed
+ * out are shared between all callers and must not be modified.
+ */
+@Service(Service.Level.PROJECT)
+class ClassNodeCache(project: Project) : Disposable {
+    private val cache = ContainerUtil.createConcurrentSoftValueMap<Key, Entry>()
+
+    /**
+     * Incremented whenever cached class nodes may have been invalidated, can be used as a cache dependency by anything
+     * derived from library bytecode.
+     */
+    val modificationTracker = SimpleModificationTracker()
+
+    init {
+        val connection = project.messageBus.connect(this)
+        connection.subscribe(
+            VirtualFileManager.VFS_CHANGES,
+            object : BulkFileListener {
+                override fun after(events: List<VFileEvent>) {
+                    val changedFiles = events.mapNotNullTo(HashSet()) { it.file }
+                    if (cache.keys.removeIf { !it.file.isValid || it.file in changedFiles }) {
+                        modificationTracker.incModificationCount()
+                    }
+                }
+            },
+        )
+        connection.subscribe(
+            ModuleRootListener.TOPIC,
+            object : ModuleRootListener {
+                override fun rootsChanged(event: ModuleRootEvent) {
+                    clear()
+                }
+            },
+        )
+    }
+
+    /**
+     * Returns the cached [ClassNode] for the class [internalName] read from [file], calling [load] if there is no
+     * up-to-date entry. `null` results are not cached.
+     */
+    fun getOrLoad(file: VirtualFile, internalName: String, load: () -> ClassNode?): ClassNode? {
+        val key = Key(file, internalName)
+        val stamp = file.modificationStamp
+        cache[key]?.let { entry ->
+            if (entry.stamp == stamp) {
+                return entry.node
+            }
+        }
+
+        val node = load() ?: return null
+        // another thread may have loaded the same class concurrently, prefer the node that's already there so that
+        // callers keying their own caches by ClassNode identity agree with each other
+        val existing = cache.putIfAbsent(key, Entry(stamp, node))
+        if (existing != null) {
+            if (existing.stamp == stamp) {
+                return existing.node
+            }
+            cache[key] = Entry(stamp, node)
+        }
+        return node
+    }
+
+    fun clear() {
+        cache.clear()
+        modificationTracker.incModificationCount()
+    }
+
+    override fun dispose() {
+        cache.clear()
+    }
+
+    private data class Key(val file: VirtualFile, val internalName: String)
+
+    private class Entry(val stamp: Long, val node: ClassNode)
+
+    companion object {
+        fun getInstance(project: Project) = project.service<ClassNodeCache>()
+    }
+}
@@ -81,6 +81,7 @@ import com.intellij.psi.scope.util.PsiScopesUtil
 import com.intellij.psi.util.PsiModificationTracker
 import com.intellij.psi.util.PsiTreeUtil
 import com.intellij.psi.util.parentOfType
+import com.intellij.util.containers.ContainerUtil
 import kotlin.math.min
 import org.objectweb.asm.Opcodes
 import org.objectweb.asm.Type
@@ -97,6 +98,9 @@ import org.objectweb.asm.tree.analysis.BasicValue
 object LocalVariables {
     private val LOCAL_INDEX_KEY = Key<Int>("mcdev.local_index")
 
+    private val indexedLocalVariableTables =
+        ContainerUtil.createConcurrentWeakMap<MethodNode, IndexedLocalVariableTable>()
+
     /**
      * Guesses the local variable index of the given variable, or of implicit locals at the given element.
      * Only valid after [guessLocalsAt] has been called.
@@ -429,6 +433,7 @@ object LocalVariables {
         }
 
         val frames = method.instructions.iterator().asSequence().filterIsInstance<FrameNode>().toList()
+        val localVariableTable = getIndexedLocalVariableTable(method)
         val frame = arrayOfNulls<LocalVariable>(method.maxLocals)
         var local = 0
         var index = 0
@@ -461,7 +466,13 @@ object LocalVariables {
             }
 
             if (storeInsn != null) {
-                val storedLocal = getLocalVariableAt(project, classNode, method, insn, storeInsn.`var`)
+                val storedLocal = localVariableTable.getLocalVariableAt(
+                    project,
+                    classNode,
+                    method,
+                    method.instructions.indexOf(insn),
+                    storeInsn.`var`,
+                )
                 frame[storeInsn.`var`] = storedLocal
                 knownFrameSize = knownFrameSize.coerceAtLeast(storeInsn.`var` + 1)
                 if (storedLocal != null &&
@@ -540,7 +551,7 @@ object LocalVariables {
                         val localType = if ((localPos < insn.local.size)) insn.local[localPos] else null
                         if (localType is String) { // String refers to a reference type
                             frame[framePos] =
-                                getLocalVariableAt(
+                                localVariableTable.getLocalVariableAt(
                                     project,
                                     classNode,
                                     method,
@@ -564,7 +575,7 @@ object LocalVariables {
                                 frame[framePos] = null
                             } else if (is32bitValue || is64bitValue) {
                                 frame[framePos] =
-                                    getLocalVariableAt(
+                                    localVariableTable.getLocalVariableAt(
                                         project,
                                         classNode,
                                         method,
@@ -584,11 +595,11 @@ object LocalVariables {
                         } else if (localType == null) {
                             if ((framePos >= initialFrameSize) && (framePos >= frameSize) && (frameSize > 0)) {
                                 if (framePos < knownFrameSize) {
-                                    frame[framePos] = getLocalVariableAt(
+                                    frame[framePos] = localVariableTable.getLocalVariableAt(
                                         project,
                                         classNode,
                                         method,
-                                        insn,
+                                        method.instructions.indexOf(insn),
                                         framePos,
                                     )
                                 } else {
@@ -612,7 +623,13 @@ object LocalVariables {
             } else if (insn is VarInsnNode) {
                 val isLoad = insn.getOpcode() >= Opcodes.ILOAD && insn.getOpcode() <= Opcodes.SALOAD
                 if (isLoad) {
-                    val loadedVar = getLocalVariableAt(project, classNode, method, insn, insn.`var`)
+                    val loadedVar = localVariableTable.getLocalVariableAt(
+                        project,
+                        classNode,
+                        method,
+                        method.instructions.indexOf(insn),
+                        insn.`var`,
+                    )
                     frame[insn.`var`] = loadedVar
                     val varSize = loadedVar?.desc?.let { Type.getType(it).size } ?: 1
                     knownFrameSize = (insn.`var` + varSize).coerceAtLeast(knownFrameSize)
@@ -681,43 +698,140 @@ object LocalVariables {
         return size.coerceAtLeast(initialFrameSize)
     }
 
-    private fun getLocalVariableAt(
-        project: Project,
-        classNode: ClassNode,
-        method: MethodNode,
-        pos: AbstractInsnNode,
-        index: Int,
-    ): LocalVariable? {
-        return getLocalVariableAt(project, classNode, method, method.instructions.indexOf(pos), index)
+    private fun getIndexedLocalVariableTable(method: MethodNode): IndexedLocalVariableTable {
+        return indexedLocalVariableTables.getOrPut(method) { IndexedLocalVariableTable() }
     }
 
-    private fun getLocalVariableAt(
-        project: Project,
-        classNode: ClassNode,
-        method: MethodNode,
-        pos: Int,
-        index: Int,
-    ): LocalVariable? {
-        var localVariableNode: LocalVariable? = null
-        var fallbackNode: LocalVariable? = null
-        for (local in method.getLocalVariableTable(project, classNode)) {
-            if (local.index != index) {
-                continue
+    /**
+     * The local variable tables of a single method, indexed by slot. Lazily holds both the method's own local variable
+     * table (or the generated one if it has none), and the generated table used as a fallback for gaps in the former.
+     */
+    private class IndexedLocalVariableTable {
+        @Volatile
+        private var localVariableTable: SlotIndex? = null
+
+        @Volatile
+        private var generatedLocalVariableTable: SlotIndex? = null
+
+        fun getLocalVariableAt(
+            project: Project,
+            classNode: ClassNode,
+            method: MethodNode,
+            pos: Int,
+            index: Int,
+        ): LocalVariable? {
+            val table = getIndex(project, classNode, method)
+            table.findInRange(index, pos)?.let { return it }
+            if (method.localVariables.isNotEmpty()) {
+                getGeneratedIndex(project, classNode, method).findInRange(index, pos)?.let { return it }
             }
-            if (local.isInRange(pos)) {
-                localVariableNode = local
-            } else if (localVariableNode == null) {
-                fallbackNode = local
+            return table.findLast(index)
+        }
+
+        private fun getIndex(project: Project, classNode: ClassNode, method: MethodNode): SlotIndex {
+            localVariableTable?.let { return it }
+            if (method.localVariables.isEmpty()) {
+                return getGeneratedIndex(project, classNode, method).also { localVariableTable = it }
+            }
+            val localVariables = method.localVariables.map {
+                LocalVariable(
+                    it.name,
+                    it.desc,
+                    it.signature,
+                    method.instructions.indexOf(it.start),
+                    method.instructions.indexOf(it.end),
+                    it.index,
+                )
             }
+            return SlotIndex(localVariables, method.maxLocals).also { localVariableTable = it }
+        }
+
+        private fun getGeneratedIndex(project: Project, classNode: ClassNode, method: MethodNode): SlotIndex {
+            generatedLocalVariableTable?.let { return it }
+            val localVariables = getGeneratedLocalVariableTable(project, classNode, method)
+            return SlotIndex(localVariables, method.maxLocals).also { generatedLocalVariableTable = it }
         }
-        if (localVariableNode == null && method.localVariables.isNotEmpty()) {
-            for (local in getGeneratedLocalVariableTable(project, classNode, method)) {
-                if (local.index == index && local.isInRange(pos)) {
-                    localVariableNode = local
+    }
+
+    /**
+     * A local variable table split up by slot, so that looking up the variable in a slot at a given instruction doesn't
+     * need to scan the whole table.
+     */
+    private class SlotIndex(localVariables: List<LocalVariable>, maxLocals: Int) {
+        private val slots = arrayOfNulls<Slot>(
+            maxOf(maxLocals, (localVariables.maxOfOrNull { it.index } ?: -1) + 1),
+        )
+
+        init {
+            for ((index, variables) in localVariables.groupBy { it.index }) {
+                if (index >= 0) {
+                    slots[index] = Slot(variables)
                 }
             }
         }
-        return localVariableNode ?: fallbackNode
+
+        /**
+         * Returns the last variable in table order in slot [index] which is in range at [pos].
+         */
+        fun findInRange(index: Int, pos: Int): LocalVariable? {
+            return slots.getOrNull(index)?.findInRange(pos)
+        }
+
+        /**
+         * Returns the last variable in table order in slot [index], regardless of range.
+         */
+        fun findLast(index: Int): LocalVariable? {
+            return slots.getOrNull(index)?.last
+        }
+    }
+
+    /**
+     * The variables of a single slot, sorted by their start index so that the variable in range of an instruction can
+     * be found with a binary search. Slots whose variables overlap (which doesn't happen in well-formed bytecode) are
+     * searched linearly in table order instead.
+     */
+    private class Slot(variables: List<LocalVariable>) {
+        val last = variables.last()
+        private val sorted: Array<LocalVariable>
+        private val starts: IntArray
+        private val ends: IntArray
+        private val overlapping: Boolean
+
+        init {
+            val nonEmpty = variables.filter { it.startIndex < it.endIndex }
+            val sortedVariables = nonEmpty.sortedBy { it.startIndex }
+            overlapping = sortedVariables.zipWithNext().any { (a, b) -> a.endIndex > b.startIndex }
+            sorted = if (overlapping) nonEmpty.toTypedArray() else sortedVariables.toTypedArray()
+            starts = IntArray(sorted.size) { sorted[it].startIndex }
+            ends = IntArray(sorted.size) { sorted[it].endIndex }
+        }
+
+        fun findInRange(pos: Int): LocalVariable? {
+            if (overlapping) {
+                return sorted.lastOrNull { it.isInRange(pos) }
+            }
+
+            // find the last variable starting at or before pos
+            var low = 0
+            var high = starts.size - 1
+            var found = -1
+            while (low <= high) {
+                val mid = (low + high) ushr 1
+                if (starts[mid] <= pos) {
+                    found = mid
+                    low = mid + 1
+                } else {
+                    high = mid - 1
+                }
+            }
+            return if (found >= 0 && pos < ends[found]) sorted[found] else null
+        }
+
+        private val LocalVariable.startIndex
+            get() = start ?: Int.MIN_VALUE
+
+        private val LocalVariable.endIndex
+            get() = end ?: Int.MAX_VALUE
     }
 
     private fun InsnList.nextNode(insn: AbstractInsnNode): AbstractInsnNode {
@@ -728,22 +842,6 @@ object LocalVariables {
         return insn
     }
 
-    private fun MethodNode.getLocalVariableTable(project: Project, classNode: ClassNode): List<LocalVariable> {
-        if (localVariables.isEmpty()) {
-            return getGeneratedLocalVariableTable(project, classNode, this)
-        }
-        return localVariables.map {
-            LocalVariable(
-                it.name,
-                it.desc,
-                it.signature,
-                instructions.indexOf(it.start),
-                instructions.indexOf(it.end),
-                it.index,
-            )
-        }
-    }
-
     private fun getGeneratedLocalVariableTable(
         project: Project,
         classNode: ClassNode,
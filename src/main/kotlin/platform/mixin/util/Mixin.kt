@@ -30,22 +30,29 @@ import com.demonwav.mcdev.platform.mixin.util.MixinConstants.Classes.CALLBACK_IN
 import com.demonwav.mcdev.util.cached
 import com.demonwav.mcdev.util.computeStringArray
 import com.demonwav.mcdev.util.findModule
-import com.demonwav.mcdev.util.resolveClassArray
+import com.demonwav.mcdev.util.findQualifiedClass
+import com.demonwav.mcdev.util.fullQualifiedName
+import com.demonwav.mcdev.util.resolveTypeArray
 import com.intellij.openapi.project.Project
 import com.intellij.psi.JavaPsiFacade
 import com.intellij.psi.PsiAnnotation
+import com.intellij.psi.PsiAnnotationMemberValue
+import com.intellij.psi.PsiArrayInitializerMemberValue
 import com.intellij.psi.PsiArrayType
 import com.intellij.psi.PsiClass
 import com.intellij.psi.PsiClassType
 import com.intellij.psi.PsiDisjunctionType
 import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiIntersectionType
+import com.intellij.psi.PsiLiteralExpression
 import com.intellij.psi.PsiMethod
 import com.intellij.psi.PsiParameter
 import com.intellij.psi.PsiPrimitiveType
 import com.intellij.psi.PsiType
 import com.intellij.psi.PsiTypes
 import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
 import com.intellij.psi.util.InheritanceUtil
 import com.intellij.psi.util.PsiModificationTracker
 import com.intellij.psi.util.TypeConversionUtil
@@ -75,35 +82,129 @@ val PsiClass.mixinAnnotation
  * Get a list of every PsiClass target defined in the Mixin annotation of the given class.
  * Returns an empty list if this is not a Mixin class or if there are no resolvable targets defined in the Mixin annotation.
  *
+ * When every target is a literal naming a compiled class, the targets are cached until the Mixin's own file or the
+ * library bytecode changes. Otherwise, for example with targets in project sources, unresolved class literals or
+ * constant string targets, they are read again on every PSI change.
+ *
  * @receiver The [PsiClass] to check.
  * @return A list of resolved classes defined in the Mixin targets.
  */
 val PsiClass.mixinTargets: List<ClassNode>
     get() {
-        return cached {
-            val mixinAnnotation = mixinAnnotation ?: return@cached emptyList()
-
-            // Read class targets (value)
-            val classTargets =
-                mixinAnnotation.findDeclaredAttributeValue(null)?.resolveClassArray()
-                    ?.mapNotNullTo(mutableListOf()) { it.bytecode } ?: mutableListOf()
-
-            // Read and add string targets (targets)
-            mixinAnnotation.findDeclaredAttributeValue("targets")?.computeStringArray()
-                ?.mapNotNullTo(classTargets) { name ->
-                    findClassNodeByQualifiedName(
-                        project,
-                        findModule(),
-                        name.replace('/', '.'),
-                    )
+        val targets = resolvedMixinTargets
+        targets.libraryNodes?.let { return it }
+        val libraryTracker = ClassNodeCache.getInstance(project).modificationTracker
+        return cached(PsiModificationTracker.MODIFICATION_COUNT, libraryTracker) {
+            targets.entries.mapNotNull { target ->
+                when (target) {
+                    is MixinTarget.Library -> target.node
+                    is MixinTarget.SourceClass -> findQualifiedClass(project, target.name)?.bytecode
+                    is MixinTarget.SourceName -> findClassNodeByQualifiedName(project, findModule(), target.name)
                 }
-            classTargets
+            }
+        }
+    }
+
+private val PsiClass.resolvedMixinTargets: MixinTargets
+    get() {
+        return CachedValuesManager.getCachedValue(this) {
+            val targets = computeMixinTargets()
+            val libraryTracker = ClassNodeCache.getInstance(project).modificationTracker
+            if (targets.libraryNodes != null) {
+                CachedValueProvider.Result.create(targets, libraryTracker, this)
+            } else {
+                CachedValueProvider.Result.create(
+                    targets,
+                    libraryTracker,
+                    PsiModificationTracker.MODIFICATION_COUNT,
+                    this,
+                )
+            }
+        }
+    }
+
+private fun PsiClass.computeMixinTargets(): MixinTargets {
+    val mixinAnnotation = mixinAnnotation ?: return MixinTargets(emptyList(), literal = false)
+    val entries = mutableListOf<MixinTarget>()
+    var literal = true
+
+    // Read class targets (value)
+    mixinAnnotation.findDeclaredAttributeValue(null)?.resolveTypeArray()?.forEach { type ->
+        val target = (type as? PsiClassType)?.resolve()
+        when {
+            target == null -> {
+                // not resolvable yet, the target may be created or indexed later
+                entries += MixinTarget.SourceName(type.canonicalText)
+                literal = false
+            }
+            target.hasCompiledClassFile -> target.bytecode?.let { entries += MixinTarget.Library(it) }
+            else -> target.fullQualifiedName?.let { entries += MixinTarget.SourceClass(it) }
+        }
+    }
+
+    // Read and add string targets (targets)
+    val stringTargets = mixinAnnotation.findDeclaredAttributeValue("targets")
+    if (stringTargets != null && !stringTargets.isLiteralArray()) {
+        // constants may be changed in other files
+        literal = false
+    }
+    stringTargets?.computeStringArray()?.forEach { name ->
+        val qualifiedName = name.replace('/', '.')
+        if (findQualifiedClass(project, qualifiedName)?.hasCompiledClassFile == true) {
+            findClassNodeByQualifiedName(project, findModule(), qualifiedName)
+                ?.let { entries += MixinTarget.Library(it) }
+        } else {
+            // source classes and classes that can't be found yet may change with any PSI change
+            entries += MixinTarget.SourceName(qualifiedName)
         }
     }
 
+    return MixinTargets(entries, literal)
+}
+
+private fun PsiAnnotationMemberValue.isLiteralArray(): Boolean {
+    return if (this is PsiArrayInitializerMemberValue) {
+        initializers.all { it is PsiLiteralExpression }
+    } else {
+        this is PsiLiteralExpression
+    }
+}
+
+private class MixinTargets(val entries: List<MixinTarget>, literal: Boolean) {
+    /**
+     * The target class nodes if all of them are literals of compiled classes, in which case they don't depend on PSI
+     * outside of the Mixin's own file.
+     */
+    val libraryNodes = if (literal && entries.isNotEmpty() && entries.all { it is MixinTarget.Library }) {
+        entries.map { (it as MixinTarget.Library).node }
+    } else {
+        null
+    }
+}
+
+private sealed interface MixinTarget {
+    class Library(val node: ClassNode) : MixinTarget
+
+    /**
+     * A class literal target declared in project sources.
+     */
+    class SourceClass(val name: String) : MixinTarget
+
+    /**
+     * A target that is declared in project sources or couldn't be found.
+     */
+    class SourceName(val name: String) : MixinTarget
+}
+
 val PsiClass.bytecode: ClassNode?
-    get() = cached(PsiModificationTracker.MODIFICATION_COUNT) {
-        findClassNodeByPsiClass(this)
+    get() = if (hasCompiledClassFile) {
+        cached(ClassNodeCache.getInstance(project).modificationTracker) {
+            findClassNodeByPsiClass(this)
+        }
+    } else {
+        cached(PsiModificationTracker.MODIFICATION_COUNT) {
+            findClassNodeByPsiClass(this)
+        }
     }
 
 /**
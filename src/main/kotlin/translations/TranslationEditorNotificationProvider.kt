@@ -20,12 +20,11 @@
 
 package com.demonwav.mcdev.translations
 
-import com.demonwav.mcdev.translations.index.TranslationIndex
+import com.demonwav.mcdev.translations.index.TranslationDiffService
 import com.demonwav.mcdev.translations.sorting.Ordering
 import com.demonwav.mcdev.translations.sorting.TranslationSorter
 import com.demonwav.mcdev.util.applyWriteAction
 import com.demonwav.mcdev.util.findMcpModule
-import com.demonwav.mcdev.util.mcDomain
 import com.intellij.notification.Notification
 import com.intellij.notification.NotificationType
 import com.intellij.openapi.editor.colors.EditorColors
@@ -55,19 +54,17 @@ class TranslationEditorNotificationProvider : EditorNotificationProvider {
             return null
         }
 
-        val missingTranslations = getMissingTranslations(project, file)
-        if (missingTranslations.none()) {
+        if (TranslationDiffService.getInstance(project).getMissingTranslations(file).isEmpty()) {
             return null
         }
 
         val hasMcpModule = file.findPsiFile(project)?.findMcpModule() != null
         return Function {
-            createNotificationPanel(missingTranslations, hasMcpModule, file, project)
+            createNotificationPanel(hasMcpModule, file, project)
         }
     }
 
     private fun createNotificationPanel(
-        missingTranslations: Sequence<Translation>,
         hasMcpModule: Boolean,
         file: VirtualFile,
         project: Project
@@ -78,6 +75,7 @@ class TranslationEditorNotificationProvider : EditorNotificationProvider {
             "Add missing default entries (won't reflect changes in original English localization)",
         ) {
             val psi = PsiManager.getInstance(project).findFile(file) ?: return@createActionLabel
+            val missingTranslations = TranslationDiffService.getInstance(project).getMissingTranslations(file)
             psi.applyWriteAction {
                 val fileEntries = missingTranslations.map {
                     TranslationFiles.FileEntry.Translation(it.key, it.text)
@@ -113,17 +111,6 @@ class TranslationEditorNotificationProvider : EditorNotificationProvider {
         return panel
     }
 
-    private fun getMissingTranslations(project: Project, file: VirtualFile): Sequence<Translation> {
-        val domain = file.mcDomain
-
-        val defaultTranslations = TranslationIndex.getProjectDefaultTranslations(project, domain)
-        val translations = TranslationIndex.getTranslations(project, file)
-
-        val keys = translations.map { it.key }.toSet()
-
-        return defaultTranslations.filter { it.key !in keys }
-    }
-
     class InfoPanel : EditorNotificationPanel() {
         override fun getBackground(): Color {
             val color = EditorColorsManager.getInstance().globalScheme.getColor(EditorColors.NOTIFICATION_BACKGROUND)
@@ -313,7 +313,7 @@ object TranslationFiles {
             for (child in psi.children) {
                 when {
                     child is LangEntry ->
-                        elements.add(Key(Regex.escape(child.key).toRegex()))
+                        elements.add(Key.exact(child.key))
                     child.node.elementType == LangTypes.LINE_ENDING &&
                         child.prevSibling.node.elementType == LangTypes.LINE_ENDING ->
                         elements.add(EmptyLine)
@@ -324,7 +324,7 @@ object TranslationFiles {
             var child: PsiElement? = rootObject.firstChild
             while (child != null) {
                 when (child) {
-                    is JsonProperty -> elements.add(Key(Regex.escape(child.name).toRegex()))
+                    is JsonProperty -> elements.add(Key.exact(child.name))
                     is PsiWhiteSpace -> {
                         val newLines = child.text.count { it == '\n' }
                         if (newLines > 1) {
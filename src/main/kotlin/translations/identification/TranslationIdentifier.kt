@@ -25,7 +25,6 @@ import com.demonwav.mcdev.platform.mcp.mappings.getMappedMethod
 import com.demonwav.mcdev.translations.TranslationConstants
 import com.demonwav.mcdev.translations.identification.TranslationInstance.Companion.FormattingError
 import com.demonwav.mcdev.translations.index.TranslationIndex
-import com.demonwav.mcdev.translations.index.merge
 import com.demonwav.mcdev.util.constantStringValue
 import com.demonwav.mcdev.util.constantValue
 import com.demonwav.mcdev.util.descriptor
@@ -93,8 +92,7 @@ abstract class TranslationIdentifier<T : PsiElement> {
 
             val translationKey = CommonDataflow.computeValue(element) as? String ?: return null
 
-            val entries = TranslationIndex.getAllDefaultEntries(project).merge("")
-            val translation = entries[prefix + translationKey + suffix]?.text
+            val translation = TranslationIndex.getDefaultTranslation(project, prefix + translationKey + suffix)?.text
                 ?: return TranslationInstance( // translation doesn't exist
                     null,
                     index,
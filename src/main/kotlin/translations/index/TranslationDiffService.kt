@@ -0,0 +1,101 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.translations.index
+
+import com.demonwav.mcdev.translations.Translation
+import com.demonwav.mcdev.translations.TranslationConstants
+import com.demonwav.mcdev.translations.TranslationFiles
+import com.demonwav.mcdev.util.mcDomain
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.search.GlobalSearchScope
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Project level cache of the default locale translations missing from the other locales of the project, per domain
+ * and locale.
+ *
+ * The merged translations of each domain and locale are kept until the [TranslationIndex] changes. After a change
+ * only the domains and locales that are asked for again get recomputed, and the default translations of a domain are
+ * merged once for all of its locales.
+ */
+@Service(Service.Level.PROJECT)
+class TranslationDiffService(private val project: Project) {
+    private val tracker = TranslationIndex.getModificationTracker(project)
+    private val merged = ConcurrentHashMap<LocaleKey, Snapshot<TranslationIndexEntry>>()
+    private val missing = ConcurrentHashMap<LocaleKey, Snapshot<List<Translation>>>()
+
+    /**
+     * Returns the translations of the default locale of [domain] which have no key in [locale], in the order of the
+     * default locale files.
+     */
+    fun getMissingTranslations(domain: String?, locale: String): List<Translation> {
+        val stamp = tracker.modificationCount
+        val key = LocaleKey(domain, locale)
+        missing[key]?.let { snapshot ->
+            if (snapshot.stamp == stamp) {
+                return snapshot.value
+            }
+        }
+
+        val defaults = getMerged(domain, TranslationConstants.DEFAULT_LOCALE, stamp)
+        val translations = getMerged(domain, locale, stamp)
+        val result = defaults.translations.filter { it.key !in translations }
+        missing[key] = Snapshot(stamp, result)
+        return result
+    }
+
+    fun getMissingTranslations(file: VirtualFile): List<Translation> {
+        val locale = TranslationFiles.getLocale(file) ?: return emptyList()
+        return getMissingTranslations(file.mcDomain, locale)
+    }
+
+    /**
+     * Returns the number of missing translations for each of [files]. Files sharing a domain and locale share the
+     * same result.
+     */
+    fun getMissingCounts(files: Iterable<VirtualFile>): Map<VirtualFile, Int> =
+        files.associateWith { getMissingTranslations(it).size }
+
+    private fun getMerged(domain: String?, locale: String, stamp: Long): TranslationIndexEntry {
+        val key = LocaleKey(domain, locale)
+        merged[key]?.let { snapshot ->
+            if (snapshot.stamp == stamp) {
+                return snapshot.value
+            }
+        }
+
+        val entry = TranslationIndex.getEntries(GlobalSearchScope.projectScope(project), locale, domain)
+            .merge(domain ?: "")
+        merged[key] = Snapshot(stamp, entry)
+        return entry
+    }
+
+    private data class LocaleKey(val domain: String?, val locale: String)
+
+    private class Snapshot<T>(val stamp: Long, val value: T)
+
+    companion object {
+        fun getInstance(project: Project) = project.service<TranslationDiffService>()
+    }
+}
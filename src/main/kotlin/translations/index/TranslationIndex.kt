@@ -25,9 +25,12 @@ import com.demonwav.mcdev.translations.TranslationConstants
 import com.demonwav.mcdev.translations.TranslationFiles
 import com.demonwav.mcdev.util.mcDomain
 import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.ModificationTracker
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.psi.PsiFile
 import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
 import com.intellij.util.indexing.DataIndexer
 import com.intellij.util.indexing.FileBasedIndex
 import com.intellij.util.indexing.FileBasedIndexExtension
@@ -94,6 +97,30 @@ class TranslationIndex : FileBasedIndexExtension<String, TranslationIndexEntry>(
         fun getAllDefaultEntries(project: Project, domain: String? = null) =
             getEntries(GlobalSearchScope.allScope(project), TranslationConstants.DEFAULT_LOCALE, domain)
 
+        /**
+         * Looks up the default translation for [key] across all domains. The merged default entries are cached per
+         * project and only rebuilt when the index changes, so this is a map lookup rather than an index query.
+         */
+        fun getDefaultTranslation(project: Project, key: String): Translation? {
+            return getMergedDefaultEntries(project)[key]
+        }
+
+        private fun getMergedDefaultEntries(project: Project): TranslationIndexEntry {
+            return CachedValuesManager.getManager(project).getCachedValue(project) {
+                CachedValueProvider.Result.create(
+                    getAllDefaultEntries(project).merge(""),
+                    getModificationTracker(project),
+                )
+            }
+        }
+
+        /**
+         * A [ModificationTracker] which changes whenever the translation index changes for the given project.
+         */
+        fun getModificationTracker(project: Project) = ModificationTracker {
+            FileBasedIndex.getInstance().getIndexModificationStamp(NAME, project)
+        }
+
         private fun getProjectDefaultEntries(project: Project, domain: String? = null) =
             getEntries(GlobalSearchScope.projectScope(project), TranslationConstants.DEFAULT_LOCALE, domain)
 
@@ -23,14 +23,39 @@ package com.demonwav.mcdev.translations.index
 import com.demonwav.mcdev.translations.Translation
 
 data class TranslationIndexEntry(val sourceDomain: String, val translations: List<Translation>) {
-    private val map: Map<String, Translation> = translations.associateBy { it.key }
+    // built on first lookup, most entries read from the index are only ever iterated
+    private val map: Map<String, Translation> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        translations.associateBy { it.key }
+    }
 
     operator fun get(key: String) = map[key]
 
     operator fun contains(key: String) = this[key] != null
 }
 
-fun Sequence<TranslationIndexEntry>.merge(sourceDomain: String) =
-    this.fold(TranslationIndexEntry(sourceDomain, emptyList())) { acc, entry ->
-        TranslationIndexEntry(sourceDomain, acc.translations + entry.translations.filterNot { it.key in acc })
+/**
+ * Merges the entries into a single one, in a single pass. When several entries contain the same key the translation
+ * from the first of them is kept. Within a single entry the last translation for a key wins, as it does for
+ * [TranslationIndexEntry.get] and for Minecraft itself when loading a file.
+ */
+fun Sequence<TranslationIndexEntry>.merge(sourceDomain: String): TranslationIndexEntry {
+    val merged = LinkedHashMap<String, Translation>()
+    for (entry in this) {
+        val keysFromEntry = HashSet<String>()
+        for (translation in entry.translations) {
+            if (translation.key in keysFromEntry) {
+                merged[translation.key] = translation
+            } else if (merged.putIfAbsent(translation.key, translation) == null) {
+                keysFromEntry += translation.key
+            }
+        }
     }
+    return TranslationIndexEntry(sourceDomain, merged.values.toList())
+}
+
+/**
+ * Finds the translation for [key] the same way as looking it up in the [merged][merge] entries would, without
+ * building the merged entry.
+ */
+fun Sequence<TranslationIndexEntry>.findTranslation(key: String): Translation? =
+    this.firstNotNullOfOrNull { it[key] }
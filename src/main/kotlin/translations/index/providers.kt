@@ -24,6 +24,7 @@ import com.demonwav.mcdev.translations.Translation
 import com.demonwav.mcdev.translations.lang.LangFile
 import com.demonwav.mcdev.translations.lang.LangFileType
 import com.demonwav.mcdev.translations.lang.gen.psi.LangEntry
+import com.demonwav.mcdev.util.cached
 import com.demonwav.mcdev.util.childrenOfType
 import com.google.gson.JsonParser
 import com.google.gson.JsonSyntaxException
@@ -32,19 +33,18 @@ import com.intellij.json.psi.JsonFile
 import com.intellij.json.psi.JsonObject
 import com.intellij.json.psi.JsonProperty
 import com.intellij.openapi.project.Project
-import com.intellij.openapi.util.Key
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiManager
-import com.intellij.psi.util.CachedValue
-import com.intellij.psi.util.CachedValueProvider
-import com.intellij.psi.util.CachedValuesManager
-import com.intellij.psi.util.PsiModificationTracker
 import com.intellij.util.indexing.FileContent
 
 interface TranslationProvider {
     fun map(domain: String, input: FileContent): TranslationIndexEntry?
 
+    /**
+     * Finds the elements defining [key] in [file]. Implementations keep a per-file map from keys to elements, built in
+     * a single pass over the file and dropped when it changes.
+     */
     fun findElements(project: Project, file: VirtualFile, key: String): List<PsiElement>
 
     companion object {
@@ -77,16 +77,11 @@ object JsonTranslationProvider : TranslationProvider {
 
     override fun findElements(project: Project, file: VirtualFile, key: String): List<JsonProperty> {
         val psiFile = PsiManager.getInstance(project).findFile(file) as? JsonFile ?: return emptyList()
-        return CachedValuesManager.getCachedValue(
-            psiFile,
-            Key<CachedValue<List<JsonProperty>>>("translation_lookup.$key"),
-        ) {
+        val elements = psiFile.cached {
             val value = psiFile.topLevelValue as? JsonObject
-            CachedValueProvider.Result.create(
-                value?.propertyList?.filter { it.name == key } ?: emptyList(),
-                PsiModificationTracker.MODIFICATION_COUNT,
-            )
+            value?.propertyList?.groupBy { it.name } ?: emptyMap()
         }
+        return elements[key] ?: emptyList()
     }
 }
 
@@ -104,14 +99,9 @@ object LangTranslationProvider : TranslationProvider {
 
     override fun findElements(project: Project, file: VirtualFile, key: String): List<LangEntry> {
         val psiFile = PsiManager.getInstance(project).findFile(file) as? LangFile ?: return emptyList()
-        return CachedValuesManager.getCachedValue(
-            psiFile,
-            Key("translation_lookup.$key"),
-        ) {
-            CachedValueProvider.Result.create(
-                psiFile.childrenOfType<LangEntry>().filter { it.key == key },
-                PsiModificationTracker.MODIFICATION_COUNT,
-            )
+        val elements = psiFile.cached {
+            psiFile.childrenOfType<LangEntry>().groupBy { it.key }
         }
+        return elements[key] ?: emptyList()
     }
 }
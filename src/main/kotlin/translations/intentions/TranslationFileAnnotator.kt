@@ -24,19 +24,22 @@ import com.demonwav.mcdev.translations.Translation
 import com.demonwav.mcdev.translations.TranslationFiles
 import com.demonwav.mcdev.translations.index.TranslationIndex
 import com.demonwav.mcdev.translations.lang.gen.psi.LangTypes
+import com.demonwav.mcdev.util.cached
 import com.demonwav.mcdev.util.mcDomain
 import com.intellij.lang.annotation.AnnotationHolder
 import com.intellij.lang.annotation.Annotator
 import com.intellij.lang.annotation.HighlightSeverity
 import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
 
 class TranslationFileAnnotator : Annotator {
     override fun annotate(element: PsiElement, annotations: AnnotationHolder) {
         val translation = TranslationFiles.toTranslation(element)
         if (translation != null) {
+            val analysis = analyze(element.containingFile)
             checkEntryKey(element, translation, annotations)
-            checkEntryDuplicates(element, translation, annotations)
-            checkEntryMatchesDefault(element, translation, annotations)
+            checkEntryDuplicates(analysis, translation, annotations)
+            checkEntryMatchesDefault(analysis, translation, annotations)
         }
         if (element.node.elementType == LangTypes.DUMMY) {
             annotations.newAnnotation(HighlightSeverity.ERROR, "Translations must not contain incomplete entries.")
@@ -54,19 +57,20 @@ class TranslationFileAnnotator : Annotator {
         }
     }
 
-    private fun checkEntryDuplicates(element: PsiElement, translation: Translation, annotations: AnnotationHolder) {
-        val count = TranslationIndex.getTranslations(element.containingFile).count { it.key == translation.key }
-        if (count > 1) {
+    private fun checkEntryDuplicates(analysis: FileAnalysis, translation: Translation, annotations: AnnotationHolder) {
+        if (translation.key in analysis.duplicateKeys) {
             annotations.newAnnotation(HighlightSeverity.WARNING, "Duplicate translation keys \"${translation.key}\".")
                 .newFix(RemoveDuplicatesIntention(translation)).registerFix()
                 .create()
         }
     }
 
-    private fun checkEntryMatchesDefault(element: PsiElement, translation: Translation, annotations: AnnotationHolder) {
-        val domain = element.containingFile?.virtualFile?.mcDomain
-        val defaultEntries = TranslationIndex.getAllDefaultEntries(element.project, domain)
-        if (defaultEntries.any { it.contains(translation.key) }) {
+    private fun checkEntryMatchesDefault(
+        analysis: FileAnalysis,
+        translation: Translation,
+        annotations: AnnotationHolder,
+    ) {
+        if (translation.key !in analysis.missingFromDefault) {
             return
         }
         val warningText = "Translation key not included in default localization file."
@@ -74,4 +78,31 @@ class TranslationFileAnnotator : Annotator {
             .newFix(RemoveUnmatchedEntryIntention()).registerFix()
             .create()
     }
+
+    /**
+     * Analyses the whole file at once. The result is cached until the file or the translation index changes, so
+     * annotating each entry is only a set lookup.
+     */
+    private fun analyze(file: PsiFile): FileAnalysis {
+        return file.cached(TranslationIndex.getModificationTracker(file.project)) {
+            val seenKeys = HashSet<String>()
+            val duplicateKeys = HashSet<String>()
+            for (translation in TranslationIndex.getTranslations(file)) {
+                if (!seenKeys.add(translation.key)) {
+                    duplicateKeys += translation.key
+                }
+            }
+
+            val domain = file.virtualFile?.mcDomain
+            val defaultKeys = HashSet<String>()
+            for (entry in TranslationIndex.getAllDefaultEntries(file.project, domain)) {
+                entry.translations.mapTo(defaultKeys) { it.key }
+            }
+            seenKeys.removeAll(defaultKeys)
+
+            FileAnalysis(duplicateKeys, seenKeys)
+        }
+    }
+
+    private class FileAnalysis(val duplicateKeys: Set<String>, val missingFromDefault: Set<String>)
 }
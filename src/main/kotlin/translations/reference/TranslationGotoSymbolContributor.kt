@@ -22,9 +22,7 @@ package com.demonwav.mcdev.translations.reference
 
 import com.demonwav.mcdev.translations.index.TranslationIndex
 import com.demonwav.mcdev.translations.index.TranslationInverseIndex
-import com.demonwav.mcdev.translations.index.merge
 import com.demonwav.mcdev.util.mapToArray
-import com.demonwav.mcdev.util.toTypedArray
 import com.intellij.navigation.ChooseByNameContributor
 import com.intellij.navigation.NavigationItem
 import com.intellij.openapi.project.Project
@@ -38,12 +36,16 @@ class TranslationGotoSymbolContributor : ChooseByNameContributor {
         } else {
             GlobalSearchScope.projectScope(project)
         }
-        val keys = FileBasedIndex.getInstance().getAllKeys(TranslationIndex.NAME, project)
-        val translations = keys
-            .asSequence()
-            .flatMap { TranslationIndex.getEntries(scope, it).merge("").translations.asSequence() }
+        val locales = FileBasedIndex.getInstance().getAllKeys(TranslationIndex.NAME, project)
+        // only the distinct keys are needed, so the entries are not merged
+        val names = HashSet<String>()
+        for (locale in locales) {
+            for (entry in TranslationIndex.getEntries(scope, locale)) {
+                entry.translations.mapNotNullTo(names) { it.key.ifEmpty { null } }
+            }
+        }
 
-        return translations.map { it.key }.distinct().filter { it.isNotEmpty() }.toTypedArray()
+        return names.toTypedArray()
     }
 
     override fun getItemsByName(
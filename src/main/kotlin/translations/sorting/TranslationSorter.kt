@@ -27,17 +27,18 @@ import com.demonwav.mcdev.translations.index.TranslationIndex
 import com.demonwav.mcdev.util.applyWriteAction
 import com.demonwav.mcdev.util.lexicographical
 import com.demonwav.mcdev.util.mcDomain
-import com.demonwav.mcdev.util.runWriteAction
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.progress.ProgressManager
 import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.ThrowableComputable
 import com.intellij.psi.PsiDocumentManager
 import com.intellij.psi.PsiFile
 import com.intellij.psi.codeStyle.CodeStyleManager
-import java.util.TreeSet
 
 object TranslationSorter {
-    private val ascendingComparator = compareBy<Translation, Iterable<String>>(
+    private val ascendingComparator = compareBy<SortEntry, Iterable<String>>(
         naturalOrder<String>().lexicographical(),
-    ) { it.key.split('.') }
+    ) { it.parts }
 
     private val descendingComparator = ascendingComparator.reversed()
 
@@ -56,47 +57,20 @@ object TranslationSorter {
             return
         }
 
-        file.applyWriteAction { sort(project, file, order, comments) }
-    }
-
-    private fun sort(project: Project, file: PsiFile, ordering: Ordering, keepComments: Int) {
-        val domain = file.virtualFile.mcDomain
-        val locale = TranslationFiles.getLocale(file.virtualFile) ?: return
-        val translations = TranslationIndex.getTranslations(file)
-        val sorted = translations.let {
-            when (ordering) {
-                Ordering.ASCENDING -> TranslationFiles.buildFileEntries(
-                    project,
-                    locale,
-                    it.sortedWith(ascendingComparator).asIterable(),
-                    keepComments,
-                )
-                Ordering.DESCENDING -> TranslationFiles.buildFileEntries(
-                    project,
-                    locale,
-                    it.sortedWith(descendingComparator).asIterable(),
-                    keepComments,
-                )
-                Ordering.TEMPLATE -> sortByTemplate(
-                    project,
-                    locale,
-                    TemplateManager.getProjectTemplate(project),
-                    it,
-                    keepComments,
-                )
-                else -> sortByTemplate(
-                    project,
-                    locale,
-                    TranslationFiles.buildSortingTemplateFromDefault(file, domain)
-                        ?: throw IllegalStateException("Could not generate template from default translation file"),
-                    it,
-                    keepComments,
-                )
-            }
-        }
+        // sorting large files takes a while, so it's done in the background and only the result is written
+        val sorted = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+            ThrowableComputable<List<TranslationFiles.FileEntry>?, Exception> {
+                // a non-blocking read action doesn't hold up writes, it's restarted after them instead
+                ReadAction.nonBlocking<List<TranslationFiles.FileEntry>?> { sort(project, file, order, comments) }
+                    .executeSynchronously()
+            },
+            "Sorting Translations",
+            true,
+            project,
+        ) ?: return
 
-        file.runWriteAction {
-            TranslationFiles.replaceAll(file, sorted.asIterable())
+        file.applyWriteAction {
+            TranslationFiles.replaceAll(file, sorted)
             val documentManager = PsiDocumentManager.getInstance(project)
             val document = documentManager.getDocument(file)
             if (document != null) {
@@ -106,43 +80,106 @@ object TranslationSorter {
         }
     }
 
+    private fun sort(
+        project: Project,
+        file: PsiFile,
+        ordering: Ordering,
+        keepComments: Int,
+    ): List<TranslationFiles.FileEntry>? {
+        val domain = file.virtualFile.mcDomain
+        val locale = TranslationFiles.getLocale(file.virtualFile) ?: return null
+        val entries = TranslationIndex.getTranslations(file).map {
+            ProgressManager.checkCanceled()
+            SortEntry(it)
+        }.toList()
+        val sorted = when (ordering) {
+            Ordering.ASCENDING -> TranslationFiles.buildFileEntries(
+                project,
+                locale,
+                entries.sortedWith(ascendingComparator).map { it.translation },
+                keepComments,
+            )
+            Ordering.DESCENDING -> TranslationFiles.buildFileEntries(
+                project,
+                locale,
+                entries.sortedWith(descendingComparator).map { it.translation },
+                keepComments,
+            )
+            Ordering.TEMPLATE -> sortByTemplate(
+                project,
+                locale,
+                TemplateManager.getProjectTemplate(project),
+                entries,
+                keepComments,
+            )
+            else -> sortByTemplate(
+                project,
+                locale,
+                TranslationFiles.buildSortingTemplateFromDefault(file, domain)
+                    ?: throw IllegalStateException("Could not generate template from default translation file"),
+                entries,
+                keepComments,
+            )
+        }
+        return sorted.toList()
+    }
+
     private fun sortByTemplate(
         project: Project,
         locale: String,
         template: Template,
-        entries: Sequence<Translation>,
+        entries: List<SortEntry>,
         keepComments: Int,
     ) = sequence {
-        val tmp = entries.toMutableList()
+        // every translation goes to the first template key matching it, anything left over is appended at the end
+        val matcher = TemplateMatcher(template)
+        val buckets = arrayOfNulls<MutableList<SortEntry>>(template.elements.size)
+        val remaining = mutableListOf<SortEntry>()
+        for (entry in entries) {
+            ProgressManager.checkCanceled()
+            val index = matcher.indexOf(entry.translation.key)
+            if (index < 0) {
+                remaining += entry
+            } else {
+                (buckets[index] ?: mutableListOf<SortEntry>().also { buckets[index] = it }) += entry
+            }
+        }
 
-        for (elem in template.elements) {
+        for ((index, elem) in template.elements.withIndex()) {
+            ProgressManager.checkCanceled()
             when (elem) {
                 is Comment -> yield(TranslationFiles.FileEntry.Comment(elem.text))
                 EmptyLine -> yield(TranslationFiles.FileEntry.EmptyLine)
                 is Key -> {
-                    val toWrite = tmp.filterTo(TreeSet(ascendingComparator)) { elem.matcher.matches(it.key) }
+                    val toWrite = buckets[index] ?: continue
                     yieldAll(
                         TranslationFiles.buildFileEntries(
                             project,
                             locale,
-                            toWrite,
+                            toWrite.sortedWith(ascendingComparator).map { it.translation },
                             keepComments,
                         ),
                     )
-                    tmp.removeAll(toWrite)
                 }
             }
         }
 
-        if (tmp.isNotEmpty()) {
+        if (remaining.isNotEmpty()) {
             yieldAll(
                 TranslationFiles.buildFileEntries(
                     project,
                     locale,
-                    tmp.sortedWith(ascendingComparator),
+                    remaining.sortedWith(ascendingComparator).map { it.translation },
                     keepComments,
                 ),
             )
         }
     }
+
+    /**
+     * A translation along with its key split into parts, so that comparisons don't split the key over and over again.
+     */
+    private class SortEntry(val translation: Translation) {
+        val parts = translation.key.split('.')
+    }
 }
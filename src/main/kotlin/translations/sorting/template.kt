@@ -24,12 +24,21 @@ import com.intellij.openapi.application.PathManager
 import com.intellij.openapi.project.Project
 import com.intellij.project.stateStore
 import java.io.File
+import java.util.regex.Pattern
 
 sealed class TemplateElement
 
 data class Comment(val text: String) : TemplateElement()
 
-data class Key(val matcher: Regex) : TemplateElement()
+/**
+ * A template line matching translation keys against [pattern]. Lines without wildcards only match a single key, which
+ * is then also available as [literal] so it can be looked up directly instead of going through the regex.
+ */
+data class Key(val pattern: String, val literal: String? = null) : TemplateElement() {
+    companion object {
+        fun exact(key: String) = Key(Regex.escape(key), key)
+    }
+}
 
 object EmptyLine : TemplateElement()
 
@@ -42,7 +51,7 @@ data class Template(val elements: List<TemplateElement>) {
                         when {
                             it.isEmpty() -> EmptyLine
                             it.startsWith('#') -> Comment(it.substring(1).trim())
-                            else -> Key(parseKey(it.trim()))
+                            else -> parseKey(it.trim())
                         }
                     }
                 } else {
@@ -52,30 +61,79 @@ data class Template(val elements: List<TemplateElement>) {
 
         private val keyRegex = Regex("([?!]?[+*]?)([^+*!?]*)([?!]?[+*]?)")
 
-        private fun parseKey(s: String) =
-            keyRegex.findAll(s).map {
+        private fun parseKey(s: String): Key {
+            if (s.none { it in "!?+*" }) {
+                return Key.exact(s)
+            }
+            val pattern = keyRegex.findAll(s).map {
                 parseQuantifier(it.groupValues[1]) +
                     Regex.escape(it.groupValues[2]) +
                     parseQuantifier(it.groupValues[3])
-            }.joinToString("", "^", "$").toRegex()
+            }.joinToString("")
+            return Key(pattern)
+        }
 
         private fun parseQuantifier(q: String?) =
             when (q) {
-                "!" -> "([^.])"
-                "!+" -> "([^.]+)"
-                "!*" -> "([^.]*)"
+                "!" -> "(?:[^.])"
+                "!+" -> "(?:[^.]+)"
+                "!*" -> "(?:[^.]*)"
 
-                "?" -> "(.)"
-                "?+" -> "(..+)"
+                "?" -> "(?:.)"
+                "?+" -> "(?:..+)"
 
-                "+", "?*" -> "(.+)"
-                "*" -> "(.*?)"
+                "+", "?*" -> "(?:.+)"
+                "*" -> "(?:.*?)"
 
                 else -> ""
             }
     }
 }
 
+/**
+ * Finds the first key element of a template matching a translation key. Exact keys are looked up in a map, all
+ * wildcard keys are combined into a single pattern with one group per key.
+ */
+internal class TemplateMatcher(template: Template) {
+    private val literals = HashMap<String, Int>()
+    private val patternIndices: IntArray
+    private val pattern: Pattern?
+
+    init {
+        val patternIndices = mutableListOf<Int>()
+        val patterns = mutableListOf<String>()
+        for ((index, elem) in template.elements.withIndex()) {
+            if (elem !is Key) {
+                continue
+            }
+            if (elem.literal != null) {
+                literals.putIfAbsent(elem.literal, index)
+            } else {
+                patternIndices += index
+                patterns += elem.pattern
+            }
+        }
+        this.patternIndices = patternIndices.toIntArray()
+        this.pattern = if (patterns.isEmpty()) null else Pattern.compile(patterns.joinToString("|") { "($it)" })
+    }
+
+    fun indexOf(key: String): Int {
+        val literalIndex = literals[key] ?: -1
+        val matcher = pattern?.matcher(key)
+        if (matcher == null || !matcher.matches()) {
+            return literalIndex
+        }
+        // alternatives are tried in order, so the group that matched is the first matching template key
+        for (group in patternIndices.indices) {
+            if (matcher.start(group + 1) != -1) {
+                val patternIndex = patternIndices[group]
+                return if (literalIndex in 0 until patternIndex) literalIndex else patternIndex
+            }
+        }
+        return literalIndex
+    }
+}
+
 object TemplateManager {
     private const val FILE_NAME = "minecraft_localization_template.lang"
 
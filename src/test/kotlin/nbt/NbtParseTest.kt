@@ -21,6 +21,7 @@
 package com.demonwav.mcdev.nbt
 
 import com.demonwav.mcdev.framework.findLibraryPath
+import com.demonwav.mcdev.nbt.filetype.NbtSignature
 import com.demonwav.mcdev.nbt.tags.NbtTypeId
 import com.demonwav.mcdev.nbt.tags.RootCompound
 import com.demonwav.mcdev.nbt.tags.TagByte
@@ -35,7 +36,12 @@ import com.demonwav.mcdev.nbt.tags.TagLong
 import com.demonwav.mcdev.nbt.tags.TagLongArray
 import com.demonwav.mcdev.nbt.tags.TagShort
 import com.demonwav.mcdev.nbt.tags.TagString
+import com.intellij.openapi.util.io.ByteArraySequence
 import com.intellij.util.io.inputStream
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.nio.file.Files
 import java.nio.file.Path
 import java.nio.file.Paths
 import org.junit.jupiter.api.Assertions
@@ -61,6 +67,57 @@ class NbtParseTest {
         Assertions.assertEquals(expected, compound)
     }
 
+    @Test
+    @DisplayName("NBT Lazy Parse Test")
+    fun lazyParseTest() {
+        val (compound, compressed) = Nbt.readTagTree(nbtFile.inputStream())
+        Assertions.assertTrue(compressed)
+        Assertions.assertEquals(expected, compound)
+    }
+
+    @Test
+    @DisplayName("NBT Lazy Parse Round Trip Test")
+    fun lazyRoundTripTest() {
+        val (compound, _) = Nbt.readTagTree(nbtFile.inputStream())
+        val bytes = ByteArrayOutputStream()
+        DataOutputStream(bytes).use { compound.write(it) }
+
+        val (reread, compressed) = Nbt.readTagTree(ByteArrayInputStream(bytes.toByteArray()))
+        Assertions.assertFalse(compressed)
+        Assertions.assertEquals(expected, reread)
+        Assertions.assertEquals(compound.toString(), reread.toString())
+    }
+
+    @Test
+    @DisplayName("NBT Text Write Test")
+    fun textWriteTest() {
+        val expectedBytes = ByteArrayOutputStream()
+        DataOutputStream(expectedBytes).use { expected.write(it) }
+
+        val bytes = ByteArrayOutputStream()
+        NbtWriter(expected.toString()).writeTo(bytes)
+        Assertions.assertArrayEquals(expectedBytes.toByteArray(), bytes.toByteArray())
+    }
+
+    @Test
+    @DisplayName("NBT Signature Test")
+    fun signatureTest() {
+        val compressed = Files.readAllBytes(nbtFile)
+        Assertions.assertTrue(NbtSignature.matches(ByteArraySequence(compressed), compressed.size.toLong()))
+
+        val bytes = ByteArrayOutputStream()
+        DataOutputStream(bytes).use { expected.write(it) }
+        val uncompressed = bytes.toByteArray()
+        Assertions.assertTrue(NbtSignature.matches(ByteArraySequence(uncompressed), uncompressed.size.toLong()))
+
+        val truncated = ByteArraySequence(uncompressed, 0, uncompressed.size - 1)
+        Assertions.assertFalse(NbtSignature.matches(truncated, truncated.length().toLong()))
+        Assertions.assertTrue(NbtSignature.matches(truncated, uncompressed.size.toLong()))
+
+        val text = "\nthis is not nbt".toByteArray()
+        Assertions.assertFalse(NbtSignature.matches(ByteArraySequence(text), text.size.toLong()))
+    }
+
     @Test
     @DisplayName("NBT Parse Timeout Test")
     fun slowParseTest() {
@@ -0,0 +1,139 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.nbt
+
+import com.demonwav.mcdev.framework.EdtInterceptor
+import com.demonwav.mcdev.framework.ProjectBuilderTest
+import com.demonwav.mcdev.nbt.lang.NbttFile
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import org.intellij.lang.annotations.Language
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+
+/**
+ * Checks that [NbtWriter] encodes NBTT text byte for byte like writing the tags built from the PSI does.
+ */
+@ExtendWith(EdtInterceptor::class)
+@DisplayName("NBT Writer Tests")
+class NbtWriterTest : ProjectBuilderTest() {
+
+    private fun doTest(@Language("NBTT") text: String) {
+        buildProject {
+            nbtt("test.nbtt", text)
+        }
+
+        val file = fixture.file as NbttFile
+        val expected = ByteArrayOutputStream()
+        DataOutputStream(expected).use { file.getRootCompound()!!.getRootCompoundTag().write(it) }
+
+        val actual = ByteArrayOutputStream()
+        NbtWriter(file.text).writeTo(actual)
+        Assertions.assertArrayEquals(expected.toByteArray(), actual.toByteArray())
+    }
+
+    @Test
+    @DisplayName("Repeated First Key Test")
+    fun repeatedFirstKeyTest() = doTest(
+        """
+        root: {
+            "a": 1b
+            "b": "second"
+            "c": 3L
+            "a": "replaces a byte with a longer string"
+        }
+        """,
+    )
+
+    @Test
+    @DisplayName("Repeated Middle Key Test")
+    fun repeatedMiddleKeyTest() = doTest(
+        """
+        root: {
+            "a": 1
+            "b": "a string that is replaced by something shorter"
+            "c": 3
+            "b": 2b
+            "d": 4
+            "b": ints(1, 2, 3)
+        }
+        """,
+    )
+
+    @Test
+    @DisplayName("Repeated Last Key Test")
+    fun repeatedLastKeyTest() = doTest(
+        """
+        root: {
+            "a": 1
+            "b": 2
+            "c": 3
+            "c": {
+                "nested": 4s
+            }
+        }
+        """,
+    )
+
+    @Test
+    @DisplayName("Repeated Key In List Of Compounds Test")
+    fun repeatedKeyInListTest() = doTest(
+        """
+        root: {
+            "before": 1
+            "list": [
+                {
+                    "a": 1
+                    "b": 2
+                    "a": "replaced"
+                },
+                {
+                    "a": 1
+                    "b": [1L, 2L]
+                    "b": []
+                },
+                {
+                    "c": 1.0
+                }
+            ]
+            "after": 2
+            "before": 3
+        }
+        """,
+    )
+
+    @Test
+    @DisplayName("Empty Lists And Arrays Test")
+    fun emptyListsAndArraysTest() = doTest(
+        """
+        root: {
+            "list": []
+            "nestedList": [[], []]
+            "compound": {}
+            "bytes": bytes()
+            "ints": ints()
+            "longs": longs()
+        }
+        """,
+    )
+}
@@ -0,0 +1,105 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.nbt.lang
+
+import com.demonwav.mcdev.framework.EdtInterceptor
+import com.demonwav.mcdev.framework.ProjectBuilderTest
+import com.demonwav.mcdev.nbt.lang.gen.psi.NbttByteArray
+import com.demonwav.mcdev.nbt.lang.gen.psi.NbttIntArray
+import com.demonwav.mcdev.nbt.lang.gen.psi.NbttLongArray
+import com.intellij.psi.PsiElement
+import com.intellij.psi.util.PsiTreeUtil
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+
+@ExtendWith(EdtInterceptor::class)
+@DisplayName("NBTT Array Body Tests")
+class NbttArrayBodyTest : ProjectBuilderTest() {
+
+    private inline fun <reified T : PsiElement> parseArray(array: String): T {
+        buildProject {
+            nbtt(
+                "test.nbtt",
+                """
+                root: {
+                    "array": $array
+                }
+                """,
+            )
+        }
+        return PsiTreeUtil.findChildOfType(fixture.file, T::class.java)!!
+    }
+
+    @Test
+    @DisplayName("Decode Bytes Test")
+    fun decodeBytesTest() {
+        val array = parseArray<NbttByteArray>("bytes(true, false, 0, +12, -12, 127b, -128B, +5b)")
+        Assertions.assertArrayEquals(
+            byteArrayOf(1, 0, 0, 12, -12, 127, -128, 5),
+            array.getArrayBody()!!.decodeBytes(),
+        )
+    }
+
+    @Test
+    @DisplayName("Out Of Range Byte Test")
+    fun outOfRangeByteTest() {
+        val array = parseArray<NbttByteArray>("bytes(1, 128, 2)")
+        Assertions.assertThrows(NumberFormatException::class.java) {
+            array.getArrayBody()!!.decodeBytes()
+        }
+    }
+
+    @Test
+    @DisplayName("Decode Ints Test")
+    fun decodeIntsTest() {
+        val array = parseArray<NbttIntArray>("ints(0, +1, -1, 2147483647i, -2147483648I, +7i)")
+        Assertions.assertArrayEquals(
+            intArrayOf(0, 1, -1, Int.MAX_VALUE, Int.MIN_VALUE, 7),
+            array.getArrayBody()!!.decodeInts(),
+        )
+    }
+
+    @Test
+    @DisplayName("Decode Longs Test")
+    fun decodeLongsTest() {
+        val array = parseArray<NbttLongArray>(
+            "longs(0, +1, -1, 9223372036854775807l, -9223372036854775808L, +7l)",
+        )
+        Assertions.assertArrayEquals(
+            longArrayOf(0, 1, -1, Long.MAX_VALUE, Long.MIN_VALUE, 7),
+            array.getArrayBody()!!.decodeLongs(),
+        )
+    }
+
+    @Test
+    @DisplayName("Value Offsets Test")
+    fun valueOffsetsTest() {
+        val array = parseArray<NbttIntArray>("ints(1,2 ,  -3,   +4i, 5)")
+        // read the offsets before anything expands the body
+        val offsets = array.getArrayBody()!!.valueStartOffsets()
+        Assertions.assertArrayEquals(
+            array.getIntList().map { it.textRange.startOffset }.toIntArray(),
+            offsets,
+        )
+    }
+}
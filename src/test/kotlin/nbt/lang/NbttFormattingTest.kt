@@ -0,0 +1,66 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.nbt.lang
+
+import com.demonwav.mcdev.framework.EdtInterceptor
+import com.demonwav.mcdev.framework.ProjectBuilderTest
+import com.demonwav.mcdev.nbt.lang.format.NbttCodeStyleSettings
+import com.intellij.application.options.CodeStyle
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.psi.codeStyle.CodeStyleManager
+import com.intellij.psi.codeStyle.CommonCodeStyleSettings
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+
+@ExtendWith(EdtInterceptor::class)
+@DisplayName("NBTT Formatting Tests")
+class NbttFormattingTest : ProjectBuilderTest() {
+
+    @Test
+    @DisplayName("Array Wrap Always Test")
+    fun arrayWrapAlwaysTest() {
+        buildProject {
+            nbtt(
+                "test.nbtt",
+                """
+                root: {
+                    "ints": ints(1,2 ,3,   4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24)
+                }
+                """,
+            )
+        }
+
+        CodeStyle.doWithTemporarySettings(project, CodeStyle.getSettings(project)) { settings ->
+            settings.getCustomSettings(NbttCodeStyleSettings::class.java).ARRAY_WRAPPING =
+                CommonCodeStyleSettings.WRAP_ALWAYS
+
+            WriteCommandAction.runWriteCommandAction(project) {
+                CodeStyleManager.getInstance(project).reformat(fixture.file)
+            }
+        }
+
+        val values = (2..24).joinToString(",\n") { "        $it" }
+        fixture.checkResult(
+            "root: {\n    \"ints\": ints(1,\n$values)\n}",
+        )
+    }
+}
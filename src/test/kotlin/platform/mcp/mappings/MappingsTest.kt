@@ -0,0 +1,121 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.platform.mcp.mappings
+
+import com.demonwav.mcdev.util.MemberReference
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.nio.ByteBuffer
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+
+@DisplayName("Mappings Tests")
+class MappingsTest {
+
+    private fun buildMappings(): Mappings {
+        val builder = Mappings.Builder()
+        builder.addClass("net.minecraft.client.Minecraft", "net.minecraft.class_310")
+        builder.addClass("net.minecraft.world.World", "net.minecraft.class_1937")
+        builder.addField(
+            MemberReference("player", null, "net.minecraft.client.Minecraft"),
+            MemberReference("field_1724", null, "net.minecraft.class_310"),
+        )
+        builder.addMethod(
+            MemberReference("tick", "()V", "net.minecraft.client.Minecraft"),
+            MemberReference("method_1574", "()V", "net.minecraft.class_310"),
+        )
+        builder.addMethod(
+            MemberReference("tick", "()V", "net.minecraft.world.World"),
+            MemberReference("method_1574", "()V", "net.minecraft.class_1937"),
+        )
+        builder.addIntermediaryName("method_1574", "tick")
+        builder.addIntermediaryName("field_1724", "player")
+        return builder.build()
+    }
+
+    private fun roundTrip(mappings: Mappings): Mappings {
+        val bytes = ByteArrayOutputStream()
+        DataOutputStream(bytes).use { mappings.write(it) }
+        return Mappings.read(ByteBuffer.wrap(bytes.toByteArray()))
+    }
+
+    private fun assertLookups(mappings: Mappings) {
+        Assertions.assertEquals(2, mappings.classCount)
+        Assertions.assertEquals(1, mappings.fieldCount)
+        Assertions.assertEquals(2, mappings.methodCount)
+
+        Assertions.assertEquals(
+            "net.minecraft.class_310",
+            mappings.getIntermediaryClass("net.minecraft.client.Minecraft"),
+        )
+        Assertions.assertEquals("net.minecraft.world.World", mappings.tryGetMappedClass("net.minecraft.class_1937"))
+        Assertions.assertNull(mappings.tryGetMappedClass("net.minecraft.class_0"))
+        Assertions.assertEquals("java.lang.Object", mappings.getMappedClass("java.lang.Object"))
+
+        Assertions.assertEquals(
+            MemberReference("field_1724", null, "net.minecraft.class_310"),
+            mappings.getIntermediaryField(MemberReference("player", null, "net.minecraft.client.Minecraft")),
+        )
+        Assertions.assertEquals(
+            MemberReference("tick", "()V", "net.minecraft.world.World"),
+            mappings.tryGetMappedMethod(MemberReference("method_1574", "()V", "net.minecraft.class_1937")),
+        )
+        Assertions.assertNull(
+            mappings.tryGetMappedMethod(MemberReference("method_1574", "(I)V", "net.minecraft.class_1937")),
+        )
+
+        Assertions.assertEquals("tick", mappings.mapIntermediaryToMapped("method_1574"))
+        Assertions.assertEquals("player", mappings.mapIntermediaryToMapped("field_1724"))
+        Assertions.assertNull(mappings.mapIntermediaryToMapped("method_0"))
+
+        Assertions.assertEquals(listOf("method_1574"), mappings.intermediaryMethodNames.toList())
+        Assertions.assertEquals(2, mappings.findMethodsByIntermediaryName("method_1574").size)
+    }
+
+    @Test
+    @DisplayName("Mappings Lookup Test")
+    fun lookupTest() {
+        assertLookups(buildMappings())
+    }
+
+    @Test
+    @DisplayName("Mappings Write Read Round Trip Test")
+    fun roundTripTest() {
+        val mappings = buildMappings()
+        val read = roundTrip(mappings)
+        assertLookups(read)
+        Assertions.assertEquals(mappings.fieldMappings.toList(), read.fieldMappings.toList())
+        Assertions.assertEquals(mappings.methodMappings.toList(), read.methodMappings.toList())
+        Assertions.assertEquals(mappings.containsFieldDescriptors, read.containsFieldDescriptors)
+    }
+
+    @Test
+    @DisplayName("Mappings Corrupt Snapshot Test")
+    fun corruptTest() {
+        val bytes = ByteArrayOutputStream()
+        DataOutputStream(bytes).use { buildMappings().write(it) }
+        val truncated = bytes.toByteArray().copyOf(bytes.size() - 3)
+        Assertions.assertThrows(RuntimeException::class.java) {
+            Mappings.read(ByteBuffer.wrap(truncated))
+        }
+    }
+}
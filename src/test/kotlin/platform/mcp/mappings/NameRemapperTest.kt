@@ -0,0 +1,84 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.platform.mcp.mappings
+
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+
+@DisplayName("Name Remapper Tests")
+class NameRemapperTest {
+
+    private val remapper = NameRemapper(
+        mapOf(
+            "net.minecraft.class_310" to "net.minecraft.client.MinecraftClient",
+            "net.minecraft.class_310\$class_311" to "net.minecraft.client.MinecraftClient\$Inner",
+            "class_310" to "MinecraftClient",
+            "method_1574" to "tick",
+            "field_1724" to "player",
+            "func_71410_x" to "getMinecraft",
+        )::get,
+    )
+
+    @Test
+    @DisplayName("Qualified Class Names")
+    fun qualifiedClassNames() {
+        Assertions.assertEquals(
+            "at net.minecraft.client.MinecraftClient.tick(Unknown Source)",
+            remapper.remap("at net.minecraft.class_310.method_1574(Unknown Source)"),
+        )
+    }
+
+    @Test
+    @DisplayName("Nested Class Names")
+    fun nestedClassNames() {
+        Assertions.assertEquals(
+            "at net.minecraft.client.MinecraftClient\$Inner.tick(Unknown Source)",
+            remapper.remap("at net.minecraft.class_310\$class_311.method_1574(Unknown Source)"),
+        )
+        Assertions.assertEquals(
+            "at net.minecraft.client.MinecraftClient\$1.tick(Unknown Source)",
+            remapper.remap("at net.minecraft.class_310\$1.method_1574(Unknown Source)"),
+        )
+    }
+
+    @Test
+    @DisplayName("Lambda Names")
+    fun lambdaNames() {
+        Assertions.assertEquals(
+            "at net.minecraft.client.MinecraftClient.lambda\$tick\$0(Unknown Source)",
+            remapper.remap("at net.minecraft.class_310.lambda\$method_1574\$0(Unknown Source)"),
+        )
+        Assertions.assertEquals(
+            "at net.minecraft.client.Minecraft.lambda\$getMinecraft\$2(Minecraft.java:12)",
+            remapper.remap("at net.minecraft.client.Minecraft.lambda\$func_71410_x\$2(Minecraft.java:12)"),
+        )
+    }
+
+    @Test
+    @DisplayName("File Names And Unknown Names")
+    fun fileNamesAndUnknownNames() {
+        Assertions.assertEquals(
+            "at com.example.Foo.bar(Foo.java:12) player field_9999",
+            remapper.remap("at com.example.Foo.bar(Foo.java:12) field_1724 field_9999"),
+        )
+    }
+}
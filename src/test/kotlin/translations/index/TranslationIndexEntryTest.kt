@@ -0,0 +1,72 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.translations.index
+
+import com.demonwav.mcdev.translations.Translation
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+
+@DisplayName("Translation Index Entry Tests")
+class TranslationIndexEntryTest {
+
+    private val entries = sequenceOf(
+        TranslationIndexEntry(
+            "",
+            listOf(
+                Translation("a", "first a"),
+                Translation("b", "first b"),
+                Translation("a", "second a"),
+            ),
+        ),
+        TranslationIndexEntry(
+            "",
+            listOf(
+                Translation("a", "other a"),
+                Translation("c", "other c"),
+                Translation("c", "other second c"),
+            ),
+        ),
+    )
+
+    @Test
+    @DisplayName("Merge Keeps Last Duplicate Within An Entry And First Across Entries")
+    fun mergeDuplicates() {
+        val merged = entries.merge("")
+        Assertions.assertEquals(
+            listOf(
+                Translation("a", "second a"),
+                Translation("b", "first b"),
+                Translation("c", "other second c"),
+            ),
+            merged.translations,
+        )
+    }
+
+    @Test
+    @DisplayName("Find Translation Matches Merged Entries")
+    fun findTranslationMatchesMerge() {
+        val merged = entries.merge("")
+        for (key in listOf("a", "b", "c", "d")) {
+            Assertions.assertEquals(merged[key], entries.findTranslation(key), key)
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Minecraft Development for IntelliJ
+ *
+ * https://mcdev.io/
+ *
+ * Copyright (C) 2024 minecraft-dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, version 3.0 only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.demonwav.mcdev.translations.sorting
+
+import java.util.regex.Pattern
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+
+@DisplayName("Translation Template Tests")
+class TemplateTest {
+
+    @Test
+    @DisplayName("Template Parsing")
+    fun parsing() {
+        val template = Template.parse("# Items\nitem.apple\n\nitem.*.name")
+        Assertions.assertEquals(4, template.elements.size)
+        Assertions.assertEquals(Comment("Items"), template.elements[0])
+        Assertions.assertEquals(Key.exact("item.apple"), template.elements[1])
+        Assertions.assertEquals(EmptyLine, template.elements[2])
+
+        val key = template.elements[3] as Key
+        Assertions.assertNull(key.literal)
+        Assertions.assertTrue(Pattern.matches(key.pattern, "item.apple.name"))
+        Assertions.assertFalse(Pattern.matches(key.pattern, "item.apple"))
+    }
+
+    @Test
+    @DisplayName("Wildcards Don't Capture")
+    fun wildcardsDontCapture() {
+        val template = Template.parse("!.?.?+.+.*.!+.!*")
+        val pattern = Pattern.compile((template.elements.single() as Key).pattern)
+        Assertions.assertEquals(0, pattern.matcher("").groupCount())
+    }
+
+    @Test
+    @DisplayName("Keys Go To The First Matching Template Line")
+    fun firstMatchingLine() {
+        val matcher = TemplateMatcher(
+            Template.parse("# Blocks\nblock.stone\nblock.*\nitem.!+.name\nitem.*\nitem.apple.name"),
+        )
+        Assertions.assertEquals(1, matcher.indexOf("block.stone"))
+        Assertions.assertEquals(2, matcher.indexOf("block.dirt"))
+        Assertions.assertEquals(3, matcher.indexOf("item.apple.name"))
+        Assertions.assertEquals(4, matcher.indexOf("item.apple.desc"))
+        Assertions.assertEquals(4, matcher.indexOf("item.apple.red.name"))
+        Assertions.assertEquals(-1, matcher.indexOf("entity.pig"))
+    }
+}